@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.handler.BodyHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures the {@link BodyHandler} collecting a JSON body, sent in chunks as the HTTP server would.
+ */
+public class BodyHandlerBenchmark extends BenchmarkBase {
+
+  private static final int CHUNK_SIZE = 8192;
+
+  @Param({"128", "1048576"})
+  public int size;
+
+  private Router router;
+  private FakeHttpServerRequest request;
+  private Buffer[] chunks;
+  private int bodyLength;
+
+  @Setup
+  public void setup() {
+    router = Router.router(vertx);
+    router.post("/body").handler(BodyHandler.create(false));
+    router.post("/body").handler(ctx -> {
+      bodyLength = ctx.getBody().length();
+      ctx.response().end();
+    });
+
+    request = new FakeHttpServerRequest(HttpMethod.POST, "/body", "localhost")
+      .putHeader("content-type", "application/json")
+      .putHeader("content-length", Integer.toString(size));
+
+    final byte[] body = new byte[size];
+    for (int i = 0; i < size; i++) {
+      body[i] = (byte) ('a' + i % 26);
+    }
+    chunks = new Buffer[(size + CHUNK_SIZE - 1) / CHUNK_SIZE];
+    for (int i = 0; i < chunks.length; i++) {
+      final int start = i * CHUNK_SIZE;
+      final int end = Math.min(size, start + CHUNK_SIZE);
+      chunks[i] = Buffer.buffer().appendBytes(body, start, end - start);
+    }
+  }
+
+  @Benchmark
+  public int handle() {
+    router.handle(request.reset());
+    for (Buffer chunk : chunks) {
+      request.send(chunk);
+    }
+    request.end();
+    return bodyLength;
+  }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.Cookie;
+import io.vertx.core.http.HttpConnection;
+import io.vertx.core.http.HttpFrame;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerFileUpload;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.http.StreamPriority;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.net.SocketAddress;
+
+import javax.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A request that is not bound to a connection, so the router can be measured without the HTTP server. The body is
+ * sent by the benchmark with {@link #send(Buffer)} and {@link #end()}.
+ * <p>
+ * A request is meant to be reused by a benchmark thread, {@link #reset()} must be called before each routing.
+ */
+class FakeHttpServerRequest implements HttpServerRequest {
+
+  private final HttpMethod method;
+  private final String uri;
+  private final String path;
+  private final String query;
+  private final String host;
+  private final MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+  private final MultiMap params = MultiMap.caseInsensitiveMultiMap();
+  private final MultiMap formAttributes = MultiMap.caseInsensitiveMultiMap();
+  private final FakeHttpServerResponse response = new FakeHttpServerResponse();
+  private final SocketAddress remoteAddress = SocketAddress.inetSocketAddress(54321, "127.0.0.1");
+  private final SocketAddress localAddress = SocketAddress.inetSocketAddress(8080, "127.0.0.1");
+
+  private Handler<Buffer> handler;
+  private Handler<Void> endHandler;
+  private Handler<Throwable> exceptionHandler;
+  private boolean expectMultipart;
+  private boolean ended;
+
+  FakeHttpServerRequest(HttpMethod method, String uri, String host) {
+    this.method = method;
+    this.uri = uri;
+    this.host = host;
+    final int idx = uri.indexOf('?');
+    this.path = idx == -1 ? uri : uri.substring(0, idx);
+    this.query = idx == -1 ? null : uri.substring(idx + 1);
+    headers.set("host", host);
+  }
+
+  FakeHttpServerRequest putHeader(String name, String value) {
+    headers.set(name, value);
+    return this;
+  }
+
+  /**
+   * Prepare the request to be routed again.
+   */
+  FakeHttpServerRequest reset() {
+    params.clear();
+    formAttributes.clear();
+    handler = null;
+    endHandler = null;
+    exceptionHandler = null;
+    expectMultipart = false;
+    ended = false;
+    response.recycle();
+    return this;
+  }
+
+  /**
+   * Send a chunk of the body to the handler set by the router.
+   */
+  void send(Buffer chunk) {
+    if (handler != null) {
+      handler.handle(chunk);
+    }
+  }
+
+  /**
+   * End the body.
+   */
+  void end() {
+    ended = true;
+    if (endHandler != null) {
+      endHandler.handle(null);
+    }
+  }
+
+  @Override
+  public FakeHttpServerResponse response() {
+    return response;
+  }
+
+  @Override
+  public HttpServerRequest exceptionHandler(Handler<Throwable> handler) {
+    this.exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest handler(Handler<Buffer> handler) {
+    this.handler = handler;
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest pause() {
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest resume() {
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest fetch(long amount) {
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest endHandler(Handler<Void> endHandler) {
+    this.endHandler = endHandler;
+    return this;
+  }
+
+  @Override
+  public HttpVersion version() {
+    return HttpVersion.HTTP_1_1;
+  }
+
+  @Override
+  public HttpMethod method() {
+    return method;
+  }
+
+  @Override
+  public String rawMethod() {
+    return method.name();
+  }
+
+  @Override
+  public String scheme() {
+    return "http";
+  }
+
+  @Override
+  public String uri() {
+    return uri;
+  }
+
+  @Override
+  public String path() {
+    return path;
+  }
+
+  @Override
+  public String query() {
+    return query;
+  }
+
+  @Override
+  public String host() {
+    return host;
+  }
+
+  @Override
+  public long bytesRead() {
+    return 0;
+  }
+
+  @Override
+  public MultiMap headers() {
+    return headers;
+  }
+
+  @Override
+  public MultiMap params() {
+    return params;
+  }
+
+  @Override
+  public SocketAddress remoteAddress() {
+    return remoteAddress;
+  }
+
+  @Override
+  public SocketAddress localAddress() {
+    return localAddress;
+  }
+
+  @Override
+  public boolean isSSL() {
+    return false;
+  }
+
+  @Override
+  public X509Certificate[] peerCertificateChain() {
+    return null;
+  }
+
+  @Override
+  public String absoluteURI() {
+    return "http://" + host + uri;
+  }
+
+  @Override
+  public Future<Buffer> body() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public NetSocket netSocket() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public HttpServerRequest setExpectMultipart(boolean expect) {
+    this.expectMultipart = expect;
+    return this;
+  }
+
+  @Override
+  public boolean isExpectMultipart() {
+    return expectMultipart;
+  }
+
+  @Override
+  public HttpServerRequest uploadHandler(Handler<HttpServerFileUpload> uploadHandler) {
+    return this;
+  }
+
+  @Override
+  public MultiMap formAttributes() {
+    return formAttributes;
+  }
+
+  @Override
+  public String getFormAttribute(String attributeName) {
+    return formAttributes.get(attributeName);
+  }
+
+  @Override
+  public ServerWebSocket upgrade() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean isEnded() {
+    return ended;
+  }
+
+  @Override
+  public HttpServerRequest customFrameHandler(Handler<HttpFrame> handler) {
+    return this;
+  }
+
+  @Override
+  public HttpConnection connection() {
+    return null;
+  }
+
+  @Override
+  public HttpServerRequest streamPriorityHandler(Handler<StreamPriority> handler) {
+    return this;
+  }
+
+  @Override
+  public Map<String, Cookie> cookieMap() {
+    return Collections.emptyMap();
+  }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.Cookie;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerResponse;
+
+/**
+ * A response that is not bound to a connection, the written data is dropped. The status code and the number of bytes
+ * are kept so a benchmark can consume them.
+ */
+class FakeHttpServerResponse implements HttpServerResponse {
+
+  private final MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+  private final MultiMap trailers = MultiMap.caseInsensitiveMultiMap();
+
+  private int statusCode;
+  private String statusMessage;
+  private boolean chunked;
+  private boolean ended;
+  private long bytesWritten;
+  private Handler<Void> headersEndHandler;
+  private Handler<Void> bodyEndHandler;
+  private Handler<Void> endHandler;
+
+  void recycle() {
+    headers.clear();
+    trailers.clear();
+    statusCode = 200;
+    statusMessage = null;
+    chunked = false;
+    ended = false;
+    bytesWritten = 0;
+    headersEndHandler = null;
+    bodyEndHandler = null;
+    endHandler = null;
+  }
+
+  private Future<Void> written(int length) {
+    bytesWritten += length;
+    return Future.succeededFuture();
+  }
+
+  private Future<Void> ended(int length) {
+    if (ended) {
+      throw new IllegalStateException("Response has already been written");
+    }
+    if (headersEndHandler != null) {
+      headersEndHandler.handle(null);
+    }
+    bytesWritten += length;
+    ended = true;
+    if (bodyEndHandler != null) {
+      bodyEndHandler.handle(null);
+    }
+    if (endHandler != null) {
+      endHandler.handle(null);
+    }
+    return Future.succeededFuture();
+  }
+
+  @Override
+  public HttpServerResponse exceptionHandler(Handler<Throwable> handler) {
+    return this;
+  }
+
+  @Override
+  public Future<Void> write(Buffer data) {
+    return written(data.length());
+  }
+
+  @Override
+  public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+    handler.handle(written(data.length()));
+  }
+
+  @Override
+  public void end(Handler<AsyncResult<Void>> handler) {
+    handler.handle(ended(0));
+  }
+
+  @Override
+  public HttpServerResponse setWriteQueueMaxSize(int maxSize) {
+    return this;
+  }
+
+  @Override
+  public boolean writeQueueFull() {
+    return false;
+  }
+
+  @Override
+  public HttpServerResponse drainHandler(Handler<Void> handler) {
+    return this;
+  }
+
+  @Override
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  @Override
+  public HttpServerResponse setStatusCode(int statusCode) {
+    this.statusCode = statusCode;
+    return this;
+  }
+
+  @Override
+  public String getStatusMessage() {
+    return statusMessage;
+  }
+
+  @Override
+  public HttpServerResponse setStatusMessage(String statusMessage) {
+    this.statusMessage = statusMessage;
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse setChunked(boolean chunked) {
+    this.chunked = chunked;
+    return this;
+  }
+
+  @Override
+  public boolean isChunked() {
+    return chunked;
+  }
+
+  @Override
+  public MultiMap headers() {
+    return headers;
+  }
+
+  @Override
+  public HttpServerResponse putHeader(String name, String value) {
+    headers.set(name, value);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putHeader(CharSequence name, CharSequence value) {
+    headers.set(name, value);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putHeader(String name, Iterable<String> values) {
+    headers.set(name, values);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putHeader(CharSequence name, Iterable<CharSequence> values) {
+    headers.set(name, values);
+    return this;
+  }
+
+  @Override
+  public MultiMap trailers() {
+    return trailers;
+  }
+
+  @Override
+  public HttpServerResponse putTrailer(String name, String value) {
+    trailers.set(name, value);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putTrailer(CharSequence name, CharSequence value) {
+    trailers.set(name, value);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putTrailer(String name, Iterable<String> values) {
+    trailers.set(name, values);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putTrailer(CharSequence name, Iterable<CharSequence> value) {
+    trailers.set(name, value);
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse closeHandler(Handler<Void> handler) {
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse endHandler(Handler<Void> handler) {
+    this.endHandler = handler;
+    return this;
+  }
+
+  @Override
+  public Future<Void> write(String chunk, String enc) {
+    return written(chunk.length());
+  }
+
+  @Override
+  public void write(String chunk, String enc, Handler<AsyncResult<Void>> handler) {
+    handler.handle(written(chunk.length()));
+  }
+
+  @Override
+  public Future<Void> write(String chunk) {
+    return written(chunk.length());
+  }
+
+  @Override
+  public void write(String chunk, Handler<AsyncResult<Void>> handler) {
+    handler.handle(written(chunk.length()));
+  }
+
+  @Override
+  public HttpServerResponse writeContinue() {
+    return this;
+  }
+
+  @Override
+  public Future<Void> end(String chunk) {
+    return ended(chunk.length());
+  }
+
+  @Override
+  public void end(String chunk, Handler<AsyncResult<Void>> handler) {
+    handler.handle(ended(chunk.length()));
+  }
+
+  @Override
+  public Future<Void> end(String chunk, String enc) {
+    return ended(chunk.length());
+  }
+
+  @Override
+  public void end(String chunk, String enc, Handler<AsyncResult<Void>> handler) {
+    handler.handle(ended(chunk.length()));
+  }
+
+  @Override
+  public Future<Void> end(Buffer chunk) {
+    return ended(chunk.length());
+  }
+
+  @Override
+  public void end(Buffer chunk, Handler<AsyncResult<Void>> handler) {
+    handler.handle(ended(chunk.length()));
+  }
+
+  @Override
+  public Future<Void> end() {
+    return ended(0);
+  }
+
+  @Override
+  public Future<Void> sendFile(String filename, long offset, long length) {
+    return ended(0);
+  }
+
+  @Override
+  public HttpServerResponse sendFile(String filename, long offset, long length, Handler<AsyncResult<Void>> resultHandler) {
+    resultHandler.handle(ended(0));
+    return this;
+  }
+
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public boolean ended() {
+    return ended;
+  }
+
+  @Override
+  public boolean closed() {
+    return false;
+  }
+
+  @Override
+  public boolean headWritten() {
+    return ended;
+  }
+
+  @Override
+  public HttpServerResponse headersEndHandler(Handler<Void> handler) {
+    this.headersEndHandler = handler;
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse bodyEndHandler(Handler<Void> handler) {
+    this.bodyEndHandler = handler;
+    return this;
+  }
+
+  @Override
+  public long bytesWritten() {
+    return bytesWritten;
+  }
+
+  @Override
+  public int streamId() {
+    return -1;
+  }
+
+  @Override
+  public Future<HttpServerResponse> push(HttpMethod method, String host, String path, MultiMap headers) {
+    return Future.failedFuture("Push promise is not supported");
+  }
+
+  @Override
+  public void reset(long code) {
+  }
+
+  @Override
+  public HttpServerResponse writeCustomFrame(int type, int flags, Buffer payload) {
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse addCookie(Cookie cookie) {
+    return this;
+  }
+
+  @Override
+  public Cookie removeCookie(String name, boolean invalidate) {
+    return null;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.ext.web.impl.HeaderParser;
+import io.vertx.ext.web.impl.ParsableMIMEValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the array based header parser with the linked list based one it replaced. The {@code sort} benchmarks
+ * split, parse and sort a whole {@code Accept} header, the {@code parse} benchmarks parse a single value with
+ * parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderParserBenchmark {
+
+  @Param({
+    "application/json",
+    "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,image/apng,*/*;q=0.8",
+    "text/plain; q=0.5, text/html, text/x-dvi; q=0.8, text/x-c, application/json;charset=utf-8, */*;q=0.1"
+  })
+  public String accept;
+
+  @Benchmark
+  public List<ParsableMIMEValue> sort() {
+    return HeaderParser.sort(HeaderParser.convertToParsedHeaderValues(accept, ParsableMIMEValue::new));
+  }
+
+  @Benchmark
+  public List<ParsableMIMEValue> legacySort() {
+    return LegacyHeaderParser.sort(LegacyHeaderParser.convertToParsedHeaderValues(accept, ParsableMIMEValue::new));
+  }
+
+  @Benchmark
+  public void parse(Blackhole bh) {
+    HeaderParser.parseHeaderValue("text/html;level=1;q=0.8", bh::consume, bh::consume, (k, v) -> bh.consume(v));
+  }
+
+  @Benchmark
+  public void legacyParse(Blackhole bh) {
+    LegacyHeaderParser.parseHeaderValue("text/html;level=1;q=0.8", bh::consume, bh::consume, (k, v) -> bh.consume(v));
+  }
+}
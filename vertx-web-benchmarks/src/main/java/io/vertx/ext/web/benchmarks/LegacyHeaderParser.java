@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.ext.web.ParsedHeaderValue;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A copy of the linked list based header parser that was replaced by the array based one, kept as the baseline of
+ * {@link HeaderParserBenchmark}.
+ */
+final class LegacyHeaderParser {
+
+  private static final Comparator<ParsedHeaderValue> HEADER_SORTER =
+    (ParsedHeaderValue left, ParsedHeaderValue right) -> right.weightedOrder() - left.weightedOrder();
+
+  static <T extends ParsedHeaderValue> List<T> convertToParsedHeaderValues(String unparsedHeaderValue, Function<String, T> objectCreator) {
+    return split(unparsedHeaderValue, ',', objectCreator);
+  }
+
+  static <T extends ParsedHeaderValue> List<T> sort(List<T> headers) {
+    headers.sort(HEADER_SORTER);
+    return headers;
+  }
+
+  static void parseHeaderValue(String headerContent, Consumer<String> valueCallback, Consumer<Float> weightCallback, BiConsumer<String, String> parameterCallback) {
+
+    int paramIndex = headerContent.indexOf(';');
+
+    if (paramIndex < 0) {
+      valueCallback.accept(headerContent);
+    } else {
+      // the whole value
+      valueCallback.accept(headerContent.substring(0, paramIndex));
+
+      if (paramIndex < headerContent.length()) {
+
+        split(headerContent.substring(paramIndex + 1), ';', part -> {
+          int idx = part.indexOf('=');
+          if (idx != -1) {
+            final String key = part.substring(0, idx);
+            final String val = part.substring(idx + 1);
+
+            if ("q".equalsIgnoreCase(key)) {
+              try {
+                weightCallback.accept(Float.parseFloat(val));
+              } catch (NumberFormatException e) {
+                // ignored
+              }
+            } else {
+              parameterCallback.accept(key, unquote(val));
+            }
+          } else {
+            // no value associated with this key
+            parameterCallback.accept(part, null);
+          }
+
+          return null;
+        });
+      }
+    }
+  }
+
+  private static <T> List<T> split(String header, char split, Function<String, T> factory) {
+    if (header == null || header.length() == 0) {
+      return Collections.emptyList();
+    }
+
+    final List<T> parts = new LinkedList<>();
+
+    // state machine
+    boolean quote = false;
+    int start = 0;
+    char last = 0;
+
+    for (int i = 0; i < header.length(); i++) {
+      char ch = header.charAt(i);
+      // trim initial white space
+      if (start == i && ch == ' ') {
+        start++;
+        continue;
+      }
+      // identify if we're handling quoted strings
+      if (ch == '\"' && last != '\\') {
+        quote = !quote;
+      }
+
+      last = ch;
+      // splitting logic only applies outside quoted strings
+      if (!quote && ch == split) {
+        int end = i;
+        // trim end white space
+        for (int j = i - 1; j >= start; j--) {
+          if (header.charAt(j) == ' ') {
+            end--;
+            continue;
+          }
+          break;
+        }
+        // ignore empty
+        if (end - start > 0) {
+          parts.add(factory.apply(header.substring(start, end)));
+        }
+        start = i + 1;
+      }
+    }
+
+    // rest
+    if (start < header.length()) {
+      int end = header.length();
+      // trim end white space
+      for (int j = header.length() - 1; j >= start; j--) {
+        if (header.charAt(j) == ' ') {
+          end--;
+          continue;
+        }
+        break;
+      }
+      // ignore empty
+      if (end - start > 0) {
+        parts.add(factory.apply(header.substring(start, end)));
+      }
+    }
+
+    return parts;
+  }
+
+  private static String unquote(String value) {
+    if (value == null || value.length() == 0) {
+      return value;
+    }
+
+    StringBuilder sb = null;
+
+    int start = 0;
+    int end = value.length();
+
+    // adjust start if there is a quote
+    if (value.charAt(start) == '\"') {
+      start++;
+    }
+
+    // adjust end if there is a quote
+    if (value.charAt(end - 1) == '\"') {
+      end--;
+    }
+
+    // look for extra quotes in the value itself
+    for (int i = start ; i < end; i++) {
+      if (value.charAt(i) == '\\') {
+        if (sb == null) {
+          sb = new StringBuilder(value.substring(start, i));
+        }
+        continue;
+      }
+      if (sb != null) {
+        sb.append(value.charAt(i));
+      }
+    }
+
+    if (sb != null) {
+      return sb.toString();
+    } else {
+      // the value is quoted
+      if (end - start != value.length()) {
+        return value.substring(start, end);
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures the dispatch of a request by a router. The request is matched by the last route of the router, so every
+ * route is tried unless the router can skip them.
+ */
+public class RouterBenchmark extends BenchmarkBase {
+
+  @Param({"10", "100", "1000"})
+  public int routes;
+
+  @Param({"literal", "param", "regex", "subrouter", "vhost"})
+  public String kind;
+
+  @Param({"false", "true"})
+  public boolean routeTree;
+
+  private Router router;
+  private FakeHttpServerRequest request;
+
+  @Setup
+  public void setup() {
+    router = Router.router(vertx).routeTree(routeTree);
+
+    final Handler<RoutingContext> handler = ctx -> ctx.response().end();
+    final int last = routes - 1;
+
+    switch (kind) {
+      case "literal":
+        for (int i = 0; i < routes; i++) {
+          router.get("/api/resource" + i).handler(handler);
+        }
+        request = new FakeHttpServerRequest(HttpMethod.GET, "/api/resource" + last, "localhost");
+        break;
+      case "param":
+        for (int i = 0; i < routes; i++) {
+          router.get("/api/resource" + i + "/:id").handler(handler);
+        }
+        request = new FakeHttpServerRequest(HttpMethod.GET, "/api/resource" + last + "/42", "localhost");
+        break;
+      case "regex":
+        for (int i = 0; i < routes; i++) {
+          router.getWithRegex("/api/resource" + i + "/(\\d+)").handler(handler);
+        }
+        request = new FakeHttpServerRequest(HttpMethod.GET, "/api/resource" + last + "/42", "localhost");
+        break;
+      case "subrouter":
+        for (int i = 0; i < routes; i++) {
+          Router subRouter = Router.router(vertx);
+          subRouter.get("/items/:id").handler(handler);
+          router.mountSubRouter("/api/resource" + i, subRouter);
+        }
+        request = new FakeHttpServerRequest(HttpMethod.GET, "/api/resource" + last + "/items/42", "localhost");
+        break;
+      case "vhost":
+        for (int i = 0; i < routes; i++) {
+          router.get("/api").virtualHost("tenant" + i + ".example.com").handler(handler);
+        }
+        request = new FakeHttpServerRequest(HttpMethod.GET, "/api", "tenant" + last + ".example.com");
+        break;
+      default:
+        throw new IllegalArgumentException(kind);
+    }
+  }
+
+  @Benchmark
+  public int handle() {
+    router.handle(request.reset());
+    return request.response().getStatusCode();
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures the allocation of a routing context and the access to its data and path params, by a route with two
+ * handlers.
+ */
+public class RoutingContextBenchmark extends BenchmarkBase {
+
+  private Router router;
+  private FakeHttpServerRequest request;
+  private Object result;
+
+  @Setup
+  public void setup() {
+    router = Router.router(vertx);
+
+    router.get("/empty").handler(ctx -> ctx.next());
+    router.get("/empty").handler(ctx -> ctx.response().end());
+
+    router.get("/data").handler(ctx -> {
+      ctx.put("user", "paulo");
+      ctx.next();
+    });
+    router.get("/data").handler(ctx -> {
+      result = ctx.get("user");
+      ctx.response().end();
+    });
+
+    router.get("/users/:id/orders/:oid").handler(ctx -> {
+      result = ctx.pathParam("id");
+      ctx.next();
+    });
+    router.get("/users/:id/orders/:oid").handler(ctx -> {
+      result = ctx.pathParam("oid");
+      ctx.response().end();
+    });
+
+    router.get("/params/:id").handler(ctx -> {
+      result = ctx.request().getParam("id");
+      ctx.response().end();
+    });
+  }
+
+  private Object route(String uri) {
+    if (request == null || !request.uri().equals(uri)) {
+      request = new FakeHttpServerRequest(HttpMethod.GET, uri, "localhost");
+    }
+    router.handle(request.reset());
+    return result;
+  }
+
+  @Benchmark
+  public Object empty() {
+    return route("/empty");
+  }
+
+  @Benchmark
+  public Object data() {
+    return route("/data");
+  }
+
+  @Benchmark
+  public Object pathParams() {
+    return route("/users/42/orders/1337");
+  }
+
+  @Benchmark
+  public Object requestParams() {
+    return route("/params/42");
+  }
+}
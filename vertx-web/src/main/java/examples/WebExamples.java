@@ -9,6 +9,8 @@ import io.vertx.core.http.*;
 import io.vertx.core.http.impl.MimeMapping;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.parsetools.JsonParser;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.auth.AuthProvider;
 import io.vertx.ext.auth.KeyStoreOptions;
 import io.vertx.ext.auth.User;
@@ -1513,4 +1515,58 @@ public class WebExamples {
         ctx.fail(401);
       });
   }
+
+  public void example75(Router router) {
+    // record the metrics of the routes
+    router.metrics(true);
+
+    router.get("/metrics").handler(ctx -> {
+      JsonArray metrics = new JsonArray();
+      for (Route route : router.getRoutes()) {
+        metrics.add(route.metrics().toJson());
+      }
+      ctx.response()
+        .putHeader("content-type", "application/json")
+        .end(metrics.encode());
+    });
+  }
+
+  public void example76(Router router) {
+    router.post("/events")
+      .handler(BodyHandler.create().setStreaming(true))
+      .handler(ctx -> {
+        JsonParser parser = ctx.getBodyAsJsonParser();
+        // one event per JSON object of the body
+        parser.objectValueMode();
+        parser
+          .handler(event -> {
+            JsonObject json = event.objectValue();
+            // Do something with the object
+          })
+          .exceptionHandler(err -> {
+            // the body is invalid or too large
+          })
+          .endHandler(v -> ctx.response().end());
+      });
+  }
+
+  public void example77(Router router) {
+    router.route().handler(BodyHandler.create().setBodyLimit(1024 * 1024));
+
+    // small JSON requests
+    router.post("/api/orders")
+      .setBodyOptions(new BodyOptions().setBodyLimit(16 * 1024L).setPreallocateBodyBuffer(true))
+      .handler(ctx -> {
+        JsonObject order = ctx.getBodyAsJson();
+        // Do something with the order
+      });
+
+    // large uploads are streamed
+    router.put("/api/videos/:id")
+      .setBodyOptions(new BodyOptions().setBodyLimit(-1L).setStreaming(true))
+      .handler(ctx -> {
+        ReadStream<Buffer> video = ctx.getBodyStream();
+        // Pipe the video to its storage
+      });
+  }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * How the body of the requests handled by a {@link Route} is handled by a
+ * {@link io.vertx.ext.web.handler.BodyHandler} mounted before the route, see {@link Route#setBodyOptions(BodyOptions)}.
+ * <p>
+ * An option left {@code null} takes the value configured on the body handler.
+ */
+@DataObject
+public class BodyOptions {
+
+  private Long bodyLimit;
+  private Boolean handleFileUploads;
+  private Boolean streaming;
+  private Boolean preallocateBodyBuffer;
+
+  /**
+   * Default constructor
+   */
+  public BodyOptions() {
+  }
+
+  /**
+   * Copy constructor
+   *
+   * @param other the options to copy
+   */
+  public BodyOptions(BodyOptions other) {
+    this.bodyLimit = other.bodyLimit;
+    this.handleFileUploads = other.handleFileUploads;
+    this.streaming = other.streaming;
+    this.preallocateBodyBuffer = other.preallocateBodyBuffer;
+  }
+
+  /**
+   * Constructor from JSON
+   *
+   * @param json the JSON
+   */
+  public BodyOptions(JsonObject json) {
+    this.bodyLimit = json.getLong("bodyLimit");
+    this.handleFileUploads = json.getBoolean("handleFileUploads");
+    this.streaming = json.getBoolean("streaming");
+    this.preallocateBodyBuffer = json.getBoolean("preallocateBodyBuffer");
+  }
+
+  /**
+   * @return the JSON representation of the options
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    if (bodyLimit != null) {
+      json.put("bodyLimit", bodyLimit);
+    }
+    if (handleFileUploads != null) {
+      json.put("handleFileUploads", handleFileUploads);
+    }
+    if (streaming != null) {
+      json.put("streaming", streaming);
+    }
+    if (preallocateBodyBuffer != null) {
+      json.put("preallocateBodyBuffer", preallocateBodyBuffer);
+    }
+    return json;
+  }
+
+  /**
+   * @return the max size of a request body, -1 means unlimited
+   */
+  public Long getBodyLimit() {
+    return bodyLimit;
+  }
+
+  /**
+   * Set the max size of a request body, -1 means unlimited.
+   *
+   * @param bodyLimit the max size
+   * @return a reference to this, so the API can be used fluently
+   */
+  public BodyOptions setBodyLimit(Long bodyLimit) {
+    this.bodyLimit = bodyLimit;
+    return this;
+  }
+
+  /**
+   * @return whether file uploads are handled
+   */
+  public Boolean getHandleFileUploads() {
+    return handleFileUploads;
+  }
+
+  /**
+   * Set whether file uploads are handled.
+   *
+   * @param handleFileUploads true if they should be handled
+   * @return a reference to this, so the API can be used fluently
+   */
+  public BodyOptions setHandleFileUploads(Boolean handleFileUploads) {
+    this.handleFileUploads = handleFileUploads;
+    return this;
+  }
+
+  /**
+   * @return whether the body is streamed instead of being collected
+   */
+  public Boolean getStreaming() {
+    return streaming;
+  }
+
+  /**
+   * Set whether the body is streamed to the handlers of the route instead of being collected.
+   *
+   * @param streaming true if the body should be streamed
+   * @return a reference to this, so the API can be used fluently
+   */
+  public BodyOptions setStreaming(Boolean streaming) {
+    this.streaming = streaming;
+    return this;
+  }
+
+  /**
+   * @return whether the body buffer is pre-allocated according to the content-length header
+   */
+  public Boolean getPreallocateBodyBuffer() {
+    return preallocateBodyBuffer;
+  }
+
+  /**
+   * Set whether the body buffer is pre-allocated according to the content-length header.
+   *
+   * @param preallocateBodyBuffer true if the body buffer should be pre-allocated
+   * @return a reference to this, so the API can be used fluently
+   */
+  public BodyOptions setPreallocateBodyBuffer(Boolean preallocateBodyBuffer) {
+    this.preallocateBodyBuffer = preallocateBodyBuffer;
+    return this;
+  }
+}
@@ -16,7 +16,10 @@
 
 package io.vertx.ext.web;
 
+import io.vertx.codegen.annotations.Nullable;
 import io.vertx.codegen.annotations.VertxGen;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
 
 /**
  * Represents a file-upload from an HTTP multipart form submission.
@@ -33,10 +36,17 @@ public interface FileUpload {
   String name();
 
   /**
-   * @return the actual temporary file name on the server where the file was uploaded to.
+   * @return the actual temporary file name on the server where the file was uploaded to, or {@code null} when the
+   * file was uploaded to the {@link #sink()}
    */
   String uploadedFileName();
 
+  /**
+   * @return the write stream the file was uploaded to, when the body handler has an
+   * {@link io.vertx.ext.web.handler.UploadSink}, otherwise {@code null}
+   */
+  @Nullable WriteStream<Buffer> sink();
+
   /**
    * @return the file name of the upload as provided in the form submission
    */
@@ -62,5 +72,4 @@ public interface FileUpload {
    */
   String charSet();
 
-
 }
@@ -235,6 +235,34 @@ public interface Route {
   @Fluent
   Route setRegexGroupsNames(List<String> groups);
 
+  /**
+   * Set how a {@link io.vertx.ext.web.handler.BodyHandler} mounted before this route handles the body of the requests
+   * this route matches, instead of its own configuration. The body handler applies the options of the first of the
+   * following routes matching the path, method and virtual host of the request which has options.
+   * <p>
+   * This way a single body handler can buffer the body of small JSON requests with a tight limit, and stream the body
+   * of a few upload routes.
+   *
+   * @param options the body options, or {@code null} to use the configuration of the body handler
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Route setBodyOptions(BodyOptions options);
+
+  /**
+   * @return the body options of this route, or {@code null} when the route has none
+   */
+  @Nullable
+  BodyOptions getBodyOptions();
+
+  /**
+   * Take a snapshot of the metrics of this route. Metrics are only recorded while the metrics of the router are
+   * enabled with {@link Router#metrics(boolean)}.
+   *
+   * @return the metrics of this route
+   */
+  RouteMetrics metrics();
+
 }
 
 
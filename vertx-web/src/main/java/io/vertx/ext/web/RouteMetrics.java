@@ -0,0 +1,269 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A snapshot of the metrics of a {@link Route}, recorded when the metrics of its router are enabled with
+ * {@link Router#metrics(boolean)}.
+ * <p>
+ * The latency of a route is the time spent from the call of its first handler until the request is handed over to
+ * another route or the response is ended. Latencies are in nanoseconds, percentiles are approximated to 1/8 of their
+ * value.
+ */
+@DataObject
+public class RouteMetrics {
+
+  private String path;
+  private long hits;
+  private long notFound;
+  private long methodNotAllowed;
+  private long notAcceptable;
+  private long unsupportedMediaType;
+  private long latencyCount;
+  private long latencyMin;
+  private long latencyMax;
+  private long latencyMean;
+  private long latency50;
+  private long latency90;
+  private long latency99;
+
+  /**
+   * Default constructor
+   */
+  public RouteMetrics() {
+  }
+
+  /**
+   * Copy constructor
+   *
+   * @param other the metrics to copy
+   */
+  public RouteMetrics(RouteMetrics other) {
+    this.path = other.path;
+    this.hits = other.hits;
+    this.notFound = other.notFound;
+    this.methodNotAllowed = other.methodNotAllowed;
+    this.notAcceptable = other.notAcceptable;
+    this.unsupportedMediaType = other.unsupportedMediaType;
+    this.latencyCount = other.latencyCount;
+    this.latencyMin = other.latencyMin;
+    this.latencyMax = other.latencyMax;
+    this.latencyMean = other.latencyMean;
+    this.latency50 = other.latency50;
+    this.latency90 = other.latency90;
+    this.latency99 = other.latency99;
+  }
+
+  /**
+   * Constructor from JSON
+   *
+   * @param json the JSON
+   */
+  public RouteMetrics(JsonObject json) {
+    this.path = json.getString("path");
+    this.hits = json.getLong("hits", 0L);
+    this.notFound = json.getLong("notFound", 0L);
+    this.methodNotAllowed = json.getLong("methodNotAllowed", 0L);
+    this.notAcceptable = json.getLong("notAcceptable", 0L);
+    this.unsupportedMediaType = json.getLong("unsupportedMediaType", 0L);
+    this.latencyCount = json.getLong("latencyCount", 0L);
+    this.latencyMin = json.getLong("latencyMin", 0L);
+    this.latencyMax = json.getLong("latencyMax", 0L);
+    this.latencyMean = json.getLong("latencyMean", 0L);
+    this.latency50 = json.getLong("latency50", 0L);
+    this.latency90 = json.getLong("latency90", 0L);
+    this.latency99 = json.getLong("latency99", 0L);
+  }
+
+  /**
+   * @return the JSON representation of the metrics
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    if (path != null) {
+      json.put("path", path);
+    }
+    json.put("hits", hits);
+    json.put("notFound", notFound);
+    json.put("methodNotAllowed", methodNotAllowed);
+    json.put("notAcceptable", notAcceptable);
+    json.put("unsupportedMediaType", unsupportedMediaType);
+    json.put("latencyCount", latencyCount);
+    json.put("latencyMin", latencyMin);
+    json.put("latencyMax", latencyMax);
+    json.put("latencyMean", latencyMean);
+    json.put("latency50", latency50);
+    json.put("latency90", latency90);
+    json.put("latency99", latency99);
+    return json;
+  }
+
+  /**
+   * @return the path of the route, or {@code null} for a route without path
+   */
+  public String getPath() {
+    return path;
+  }
+
+  public RouteMetrics setPath(String path) {
+    this.path = path;
+    return this;
+  }
+
+  /**
+   * @return the number of times the route matched a request
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  public RouteMetrics setHits(long hits) {
+    this.hits = hits;
+    return this;
+  }
+
+  /**
+   * @return the number of requests the route passed on to the next route and no other route matched, they were
+   * answered with a 404
+   */
+  public long getNotFound() {
+    return notFound;
+  }
+
+  public RouteMetrics setNotFound(long notFound) {
+    this.notFound = notFound;
+    return this;
+  }
+
+  /**
+   * @return the number of requests answered with a 405 because the route did not allow their method
+   */
+  public long getMethodNotAllowed() {
+    return methodNotAllowed;
+  }
+
+  public RouteMetrics setMethodNotAllowed(long methodNotAllowed) {
+    this.methodNotAllowed = methodNotAllowed;
+    return this;
+  }
+
+  /**
+   * @return the number of requests answered with a 406 because the route produces none of their accepted types
+   */
+  public long getNotAcceptable() {
+    return notAcceptable;
+  }
+
+  public RouteMetrics setNotAcceptable(long notAcceptable) {
+    this.notAcceptable = notAcceptable;
+    return this;
+  }
+
+  /**
+   * @return the number of requests answered with a 415 because the route does not consume their content type
+   */
+  public long getUnsupportedMediaType() {
+    return unsupportedMediaType;
+  }
+
+  public RouteMetrics setUnsupportedMediaType(long unsupportedMediaType) {
+    this.unsupportedMediaType = unsupportedMediaType;
+    return this;
+  }
+
+  /**
+   * @return the number of recorded latencies
+   */
+  public long getLatencyCount() {
+    return latencyCount;
+  }
+
+  public RouteMetrics setLatencyCount(long latencyCount) {
+    this.latencyCount = latencyCount;
+    return this;
+  }
+
+  public long getLatencyMin() {
+    return latencyMin;
+  }
+
+  public RouteMetrics setLatencyMin(long latencyMin) {
+    this.latencyMin = latencyMin;
+    return this;
+  }
+
+  public long getLatencyMax() {
+    return latencyMax;
+  }
+
+  public RouteMetrics setLatencyMax(long latencyMax) {
+    this.latencyMax = latencyMax;
+    return this;
+  }
+
+  public long getLatencyMean() {
+    return latencyMean;
+  }
+
+  public RouteMetrics setLatencyMean(long latencyMean) {
+    this.latencyMean = latencyMean;
+    return this;
+  }
+
+  /**
+   * @return the median latency
+   */
+  public long getLatency50() {
+    return latency50;
+  }
+
+  public RouteMetrics setLatency50(long latency50) {
+    this.latency50 = latency50;
+    return this;
+  }
+
+  /**
+   * @return the 90th percentile of the latency
+   */
+  public long getLatency90() {
+    return latency90;
+  }
+
+  public RouteMetrics setLatency90(long latency90) {
+    this.latency90 = latency90;
+    return this;
+  }
+
+  /**
+   * @return the 99th percentile of the latency
+   */
+  public long getLatency99() {
+    return latency99;
+  }
+
+  public RouteMetrics setLatency99(long latency99) {
+    this.latency99 = latency99;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return toJson().encode();
+  }
+}
@@ -399,4 +399,41 @@ public interface Router extends Handler<HttpServerRequest> {
    */
   @Fluent
   Router allowForward(boolean allow);
+
+  /**
+   * Set whether the router should compile its routes into a prefix tree keyed on the literal part of their paths.
+   * When enabled a request is only matched against the routes that can accept its path instead of all the routes
+   * of the router, the routes are still tried in the same order so the routing outcome does not change. This is useful
+   * for routers with a large number of routes. The tree is recompiled when the routes change.
+   *
+   * @param enable to enable the route tree
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Router routeTree(boolean enable);
+
+  /**
+   * Set the maximum number of requests for which the router remembers the outcome of matching its routes. A request
+   * is identified by its method, path and host: when such a request is routed again the routes are not matched again
+   * against its path, the path params found by the first match are reused. The content type and accept headers are
+   * still checked for each request. The cache is cleared when the routes change.
+   * <p>
+   * This is useful for routers serving a small set of hot URLs, the default size {@code 0} disables the cache.
+   *
+   * @param size the maximum number of cached requests
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Router matchCache(int size);
+
+  /**
+   * Set whether the router records the metrics of its routes: the number of requests each route matched or rejected
+   * and the latency of its handlers. The metrics of a route are read with {@link Route#metrics()}, recording them has
+   * a small cost on each request so they are disabled by default.
+   *
+   * @param enable to enable the metrics
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Router metrics(boolean enable);
 }
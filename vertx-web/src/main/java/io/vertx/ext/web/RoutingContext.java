@@ -28,6 +28,8 @@ import io.vertx.core.json.EncodeException;
 import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.parsetools.JsonParser;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.auth.User;
 import io.vertx.ext.web.impl.ParsableMIMEValue;
 import io.vertx.ext.web.impl.Utils;
@@ -271,6 +273,25 @@ public interface RoutingContext {
    */
   @Nullable Buffer getBody();
 
+  /**
+   * @return Get the HTTP request body as a stream. The context must have first been routed to a streaming
+   * {@link io.vertx.ext.web.handler.BodyHandler} for this to be populated, see
+   * {@link io.vertx.ext.web.handler.BodyHandler#setStreaming(boolean)}.
+   * <br/>
+   * The stream does not deliver the body until a handler is set on it, and can only be consumed once.
+   */
+  @Nullable ReadStream<Buffer> getBodyStream();
+
+  /**
+   * @return Get the HTTP request body as a stream of JSON parse events, the parser consumes the stream returned by
+   * {@link #getBodyStream()}. The context must have first been routed to a streaming
+   * {@link io.vertx.ext.web.handler.BodyHandler} for this to be populated.
+   */
+  default @Nullable JsonParser getBodyAsJsonParser() {
+    final ReadStream<Buffer> stream = getBodyStream();
+    return stream != null ? JsonParser.newParser(stream) : null;
+  }
+
   /**
    * @return a set of fileuploads (if any) for the request. The context must have first been routed to a
    * {@link io.vertx.ext.web.handler.BodyHandler} for this to work.
@@ -385,6 +406,14 @@ public interface RoutingContext {
    */
   void setBody(Buffer body);
 
+  /**
+   * Set the body stream. Used by the {@link io.vertx.ext.web.handler.BodyHandler}. You will not normally call this
+   * method.
+   *
+   * @param stream  the body stream
+   */
+  void setBodyStream(ReadStream<Buffer> stream);
+
   /**
    * Set the session. Used by the {@link io.vertx.ext.web.handler.SessionHandler}. You will not normally call this method.
    *
@@ -42,11 +42,26 @@ public interface BodyHandler extends Handler<RoutingContext> {
    */
   String DEFAULT_UPLOADS_DIRECTORY = "file-uploads";
 
+  /**
+   * Default number of sub directories of the uploads directory, 0 means the files are uploaded in the uploads directory
+   */
+  int DEFAULT_UPLOADS_DIRECTORY_SHARDS = 0;
+
   /**
    * Default value of whether form attributes should be merged into request params
    */
   boolean DEFAULT_MERGE_FORM_ATTRIBUTES = true;
 
+  /**
+   * Default max size of an url encoded form attribute. -1 means unlimited
+   */
+  int DEFAULT_MAX_FORM_ATTRIBUTE_SIZE = -1;
+
+  /**
+   * Default max number of url encoded form attributes. -1 means unlimited
+   */
+  int DEFAULT_MAX_FORM_ATTRIBUTES = -1;
+
   /**
    * Default value of whether uploaded files should be removed after handling the request
    */
@@ -57,6 +72,16 @@ public interface BodyHandler extends Handler<RoutingContext> {
    */
   boolean DEFAULT_PREALLOCATE_BODY_BUFFER = false;
 
+  /**
+   * Default value of whether the body is streamed to the next handlers instead of being collected
+   */
+  boolean DEFAULT_STREAMING = false;
+
+  /**
+   * Default value of whether request bodies sent with a {@code Content-Encoding} are decompressed
+   */
+  boolean DEFAULT_DECOMPRESSION_SUPPORTED = false;
+
   /**
    * Create a body handler with defaults
    *
@@ -114,7 +139,31 @@ public interface BodyHandler extends Handler<RoutingContext> {
   BodyHandler setUploadsDirectory(String uploadsDirectory);
 
   /**
-   * Set whether form attributes will be added to the request parameters
+   * Set the number of sub directories the uploaded files are spread across, so that a single directory does not hold
+   * all the files of a busy server. The sub directories are named after their index in hexadecimal. The uploads
+   * directory and its sub directories are created once, with the first upload.
+   *
+   * @param shards  the number of sub directories, 0 to upload the files in the uploads directory
+   * @return reference to this for fluency
+   */
+  @Fluent
+  BodyHandler setUploadsDirectoryShards(int shards);
+
+  /**
+   * Set the sink of the file uploads. When a sink is set, each file upload is piped to the write stream opened by the
+   * sink instead of a file in the uploads directory: {@link io.vertx.ext.web.FileUpload#uploadedFileName()} is {@code null} and
+   * {@link io.vertx.ext.web.FileUpload#sink()} returns the write stream. The next handler is called once all the uploads have been
+   * written to their write stream.
+   *
+   * @param uploadSink  the sink, {@code null} to upload the files to the uploads directory
+   * @return reference to this for fluency
+   */
+  @Fluent
+  BodyHandler setUploadSink(UploadSink uploadSink);
+
+  /**
+   * Set whether form attributes will be added to the request parameters. The attributes are added when the
+   * parameters are first read, nothing is copied for a request whose parameters are never read.
    *
    * @param mergeFormAttributes  true if they should be merged
    * @return reference to this for fluency
@@ -122,6 +171,27 @@ public interface BodyHandler extends Handler<RoutingContext> {
   @Fluent
   BodyHandler setMergeFormAttributes(boolean mergeFormAttributes);
 
+  /**
+   * Set the max size of an attribute of an {@code application/x-www-form-urlencoded} body, -1 means unlimited. The
+   * size is the size of the encoded {@code name=value} pair, the request fails with a 413 when an attribute is
+   * larger.
+   *
+   * @param maxFormAttributeSize  the max size
+   * @return reference to this for fluency
+   */
+  @Fluent
+  BodyHandler setMaxFormAttributeSize(int maxFormAttributeSize);
+
+  /**
+   * Set the max number of attributes of an {@code application/x-www-form-urlencoded} body, -1 means unlimited. The
+   * request fails with a 413 when the body has more attributes.
+   *
+   * @param maxFormAttributes  the max number of attributes
+   * @return reference to this for fluency
+   */
+  @Fluent
+  BodyHandler setMaxFormAttributes(int maxFormAttributes);
+
   /**
    * Set whether uploaded files should be removed after handling the request
    *
@@ -136,10 +206,38 @@ public interface BodyHandler extends Handler<RoutingContext> {
    * The buffer is capped at 64KB
    * @param isPreallocateBodyBuffer {@code true} if body buffer is pre-allocated according to the size
    *                               read from content-length Header.
-   *                               {code false} if body buffer is pre-allocated to 1KB, and is resized dynamically
+   *                               {code false} if the chunks of the body are collected without copies
    * @return reference to this for fluency
    */
   @Fluent
   BodyHandler setPreallocateBodyBuffer(boolean isPreallocateBodyBuffer);
 
+  /**
+   * Set whether the body is streamed to the next handlers instead of being collected. When streaming, the body is
+   * not kept in memory: the next handlers read it from {@link RoutingContext#getBodyStream()} or
+   * {@link RoutingContext#getBodyAsJsonParser()}, and can pause the stream to apply back-pressure. The body limit
+   * still applies, the stream fails and the request fails with a 413 when the body is too large.
+   * <p>
+   * Form and multipart bodies are never streamed, they are handled as usual.
+   *
+   * @param streaming  true if the body should be streamed
+   * @return reference to this for fluency
+   */
+  @Fluent
+  BodyHandler setStreaming(boolean streaming);
+
+  /**
+   * Set whether request bodies sent with a {@code Content-Encoding} are decompressed, the {@code gzip} and
+   * {@code deflate} codings are supported. The body is decompressed chunk by chunk as it arrives, collected or
+   * streamed bodies and url encoded forms are decompressed, and the body limit applies to the decompressed size.
+   * <p>
+   * The {@code Content-Encoding} and {@code Content-Length} headers are removed from the request once the body is
+   * decompressed. A request with another coding, or a compressed multipart body, fails with a 415.
+   *
+   * @param decompressionSupported  true if the body should be decompressed
+   * @return reference to this for fluency
+   */
+  @Fluent
+  BodyHandler setDecompressionSupported(boolean decompressionSupported);
+
 }
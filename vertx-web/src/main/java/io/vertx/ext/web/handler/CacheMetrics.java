@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A snapshot of the metrics of a cache of a handler, e.g. the caches of a {@link StaticHandler}. The counts start when
+ * the cache is configured, a cache is replaced when its configuration changes.
+ */
+@DataObject
+public class CacheMetrics {
+
+  private long size;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Default constructor
+   */
+  public CacheMetrics() {
+  }
+
+  /**
+   * Copy constructor
+   *
+   * @param other the metrics to copy
+   */
+  public CacheMetrics(CacheMetrics other) {
+    this.size = other.size;
+    this.hits = other.hits;
+    this.misses = other.misses;
+    this.evictions = other.evictions;
+  }
+
+  /**
+   * Constructor from JSON
+   *
+   * @param json the JSON
+   */
+  public CacheMetrics(JsonObject json) {
+    this.size = json.getLong("size", 0L);
+    this.hits = json.getLong("hits", 0L);
+    this.misses = json.getLong("misses", 0L);
+    this.evictions = json.getLong("evictions", 0L);
+  }
+
+  /**
+   * @return the JSON representation of the metrics
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    json.put("size", size);
+    json.put("hits", hits);
+    json.put("misses", misses);
+    json.put("evictions", evictions);
+    return json;
+  }
+
+  /**
+   * @return the number of cached entries
+   */
+  public long getSize() {
+    return size;
+  }
+
+  public CacheMetrics setSize(long size) {
+    this.size = size;
+    return this;
+  }
+
+  /**
+   * @return the number of lookups that found an entry which could be used
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  public CacheMetrics setHits(long hits) {
+    this.hits = hits;
+    return this;
+  }
+
+  /**
+   * @return the number of lookups that found no entry, or an out of date one
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  public CacheMetrics setMisses(long misses) {
+    this.misses = misses;
+    return this;
+  }
+
+  /**
+   * @return the number of entries evicted to bound the size of the cache
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  public CacheMetrics setEvictions(long evictions) {
+    this.evictions = evictions;
+    return this;
+  }
+}
@@ -116,6 +116,27 @@ public interface StaticHandler extends Handler<RoutingContext> {
    */
   boolean DEFAULT_SEND_VARY_HEADER = true;
 
+  /**
+   * Default max size in bytes of a file whose content is cached in memory, 0 means the content of the files is not
+   * cached
+   */
+  int DEFAULT_MAX_CACHED_FILE_SIZE = 0;
+
+  /**
+   * Default max total size in bytes of the content cached in memory
+   */
+  long DEFAULT_CONTENT_CACHE_SIZE = 32 * 1024 * 1024; // 32MB
+
+  /**
+   * Default of whether precompressed files should be sent
+   */
+  boolean DEFAULT_SEND_PRECOMPRESSED = false;
+
+  /**
+   * Default of whether strong etags should be sent
+   */
+  boolean DEFAULT_SEND_ETAG = false;
+
   /**
    * Create a handler using defaults
    *
@@ -316,4 +337,62 @@ public interface StaticHandler extends Handler<RoutingContext> {
    */
   @Fluent
   StaticHandler setDefaultContentEncoding(String contentEncoding);
+
+  /**
+   * Set the max size in bytes of a file whose content is cached in memory. A cached file is served with a single
+   * write instead of being sent from the file system, larger files are still sent from the file system.
+   * 0 disables the content cache.
+   *
+   * @param maxCachedFileSize the max size of a cached file, in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setMaxCachedFileSize(int maxCachedFileSize);
+
+  /**
+   * Set the max total size in bytes of the content cached in memory, the least recently served files are evicted
+   * when it is reached.
+   *
+   * @param contentCacheSize the max size of the content cache, in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setContentCacheSize(long contentCacheSize);
+
+  /**
+   * Set whether precompressed files should be sent. When the request accepts a content coding and a sibling file with
+   * the suffix of the coding exists, e.g. {@code app.js.br} for {@code br} or {@code app.js.gz} for {@code gzip}, that
+   * file is sent instead of compressing the original file for every request.
+   *
+   * @param sendPrecompressed true to send precompressed files
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setSendPrecompressed(boolean sendPrecompressed);
+
+  /**
+   * Set whether strong etags should be sent, when caching is enabled. The etag of a file is the SHA-256 digest of its
+   * content encoded in base64url, it is computed once on a worker thread and cached with the file properties.
+   * Conditional requests with {@code If-None-Match} and range requests with {@code If-Range} are validated against it.
+   *
+   * @param sendETag true to send etags
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setSendETag(boolean sendETag);
+
+  /**
+   * Take a snapshot of the metrics of the cache of the file properties, see {@link #setCachingEnabled(boolean)}.
+   *
+   * @return the metrics, all zero when caching is disabled
+   */
+  CacheMetrics propsCacheMetrics();
+
+  /**
+   * Take a snapshot of the metrics of the cache of the file contents, see {@link #setMaxCachedFileSize(int)}. The size
+   * of the metrics is the number of cached files.
+   *
+   * @return the metrics, all zero when no file content is cached
+   */
+  CacheMetrics contentCacheMetrics();
 }
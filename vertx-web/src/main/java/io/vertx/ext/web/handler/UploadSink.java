@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler;
+
+import io.vertx.codegen.annotations.VertxGen;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerFileUpload;
+import io.vertx.core.streams.WriteStream;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Opens the destination of the file uploads handled by a {@link BodyHandler}, instead of a file in the uploads
+ * directory. The destination can be anything that can be written to, like an in memory buffer, a stream computing a
+ * digest of the upload or the client of an object store.
+ * <p>
+ * The upload is piped to the destination, so the destination applies back-pressure to the request, and the
+ * destination is ended when the upload ends.
+ *
+ * @see BodyHandler#setUploadSink(UploadSink)
+ */
+@VertxGen
+public interface UploadSink {
+
+  /**
+   * Open the destination of an upload.
+   *
+   * @param context  the routing context of the request
+   * @param upload  the upload, its name, file name and content type are known
+   * @return the destination of the upload content
+   */
+  WriteStream<Buffer> open(RoutingContext context, HttpServerFileUpload upload);
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Decodes a request body sent with a {@code Content-Encoding}, chunk by chunk. The {@code gzip} and {@code deflate}
+ * codings are supported, with the decoders of the HTTP server.
+ * <p>
+ * A chunk is inflated a small slice at a time and the decoded size is checked after each slice: a few encoded bytes can
+ * inflate to megabytes, the decoder never holds more than the decoding of one slice beyond the limit.
+ * <p>
+ * This class is not thread-safe, it is confined to the request event loop.
+ */
+final class BodyDecoder {
+
+  // the decoded chunks are handed to the next handlers, they must not hold pooled memory
+  private static final UnpooledByteBufAllocator ALLOCATOR = new UnpooledByteBufAllocator(false);
+  // deflate inflates at most about 1000 times, a slice decodes to at most about 512KB
+  static final int SLICE_SIZE = 512;
+
+  private final EmbeddedChannel channel;
+  private final long limit;
+  private long decodedSize;
+
+  private BodyDecoder(ZlibWrapper wrapper, long limit) {
+    channel = new EmbeddedChannel(ZlibCodecFactory.newZlibDecoder(wrapper));
+    channel.config().setAllocator(ALLOCATOR);
+    this.limit = limit;
+  }
+
+  /**
+   * Create the decoder of a content coding.
+   *
+   * @param contentEncoding  the {@code Content-Encoding} of the request
+   * @param limit  the max decoded size of the body, or {@code -1}
+   * @return the decoder or {@code null} when the body is not encoded
+   * @throws HttpStatusException 415 when the coding is not supported
+   */
+  static BodyDecoder create(String contentEncoding, long limit) {
+    if (contentEncoding == null) {
+      return null;
+    }
+    final String coding = contentEncoding.trim();
+    if (coding.isEmpty() || HttpHeaderValues.IDENTITY.contentEqualsIgnoreCase(coding)) {
+      return null;
+    }
+    if (HttpHeaderValues.GZIP.contentEqualsIgnoreCase(coding) || HttpHeaderValues.X_GZIP.contentEqualsIgnoreCase(coding)) {
+      return new BodyDecoder(ZlibWrapper.GZIP, limit);
+    }
+    if (HttpHeaderValues.DEFLATE.contentEqualsIgnoreCase(coding) || HttpHeaderValues.X_DEFLATE.contentEqualsIgnoreCase(coding)) {
+      // some clients send raw deflate data without the zlib header
+      return new BodyDecoder(ZlibWrapper.ZLIB_OR_NONE, limit);
+    }
+    throw new HttpStatusException(415, "Unsupported Content-Encoding: " + contentEncoding);
+  }
+
+  /**
+   * Decode a chunk of the body.
+   *
+   * @param chunk  the encoded chunk
+   * @param handler  the handler of the decoded chunks
+   * @throws HttpStatusException 400 when the body is corrupted, 413 when the decoded body exceeds the limit
+   */
+  void decode(Buffer chunk, Handler<Buffer> handler) {
+    final ByteBuf buf = chunk.getByteBuf();
+    for (int index = buf.readerIndex(); index < buf.writerIndex(); index += SLICE_SIZE) {
+      try {
+        channel.writeInbound(buf.retainedSlice(index, Math.min(SLICE_SIZE, buf.writerIndex() - index)));
+      } catch (RuntimeException e) {
+        channel.finishAndReleaseAll();
+        throw new HttpStatusException(400, "Malformed encoded body", e);
+      }
+      drain(handler);
+    }
+  }
+
+  /**
+   * Decode the end of the body.
+   *
+   * @param handler  the handler of the decoded chunks
+   * @throws HttpStatusException 400 when the body is corrupted, 413 when the decoded body exceeds the limit
+   */
+  void end(Handler<Buffer> handler) {
+    try {
+      channel.finish();
+    } catch (RuntimeException e) {
+      channel.finishAndReleaseAll();
+      throw new HttpStatusException(400, "Malformed encoded body", e);
+    }
+    drain(handler);
+  }
+
+  /**
+   * Release the data of a body which is not read anymore.
+   */
+  void close() {
+    channel.finishAndReleaseAll();
+  }
+
+  private void drain(Handler<Buffer> handler) {
+    ByteBuf decoded;
+    while ((decoded = channel.readInbound()) != null) {
+      decodedSize += decoded.readableBytes();
+      if (limit != -1 && decodedSize > limit) {
+        // stop decoding, the rest of the body is not read
+        decoded.release();
+        channel.finishAndReleaseAll();
+        throw new HttpStatusException(413);
+      }
+      if (decoded.isReadable()) {
+        handler.handle(Buffer.buffer(decoded));
+      } else {
+        decoded.release();
+      }
+    }
+  }
+}
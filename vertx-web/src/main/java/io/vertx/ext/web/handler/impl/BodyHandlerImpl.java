@@ -17,23 +17,37 @@
 package io.vertx.ext.web.handler.impl;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpUtil;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.file.FileSystem;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServerRequest;
-import io.vertx.core.impl.logging.Logger;
-import io.vertx.core.impl.logging.LoggerFactory;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.core.streams.WriteStream;
+import io.vertx.ext.web.BodyOptions;
 import io.vertx.ext.web.FileUpload;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
+import io.vertx.ext.web.handler.UploadSink;
 import io.vertx.ext.web.impl.FileUploadImpl;
+import io.vertx.ext.web.impl.HttpServerRequestWrapper;
+import io.vertx.ext.web.impl.RoutingContextImplBase;
 
 /**
  *
@@ -41,17 +55,23 @@ import io.vertx.ext.web.impl.FileUploadImpl;
  */
 public class BodyHandlerImpl implements BodyHandler {
 
-  private static final Logger log = LoggerFactory.getLogger(BodyHandlerImpl.class);
-
   private static final String BODY_HANDLED = "__body-handled";
 
   private long bodyLimit = DEFAULT_BODY_LIMIT;
   private boolean handleFileUploads;
   private String uploadsDir;
   private boolean mergeFormAttributes = DEFAULT_MERGE_FORM_ATTRIBUTES;
+  private int maxFormAttributeSize = DEFAULT_MAX_FORM_ATTRIBUTE_SIZE;
+  private int maxFormAttributes = DEFAULT_MAX_FORM_ATTRIBUTES;
   private boolean deleteUploadedFilesOnEnd = DEFAULT_DELETE_UPLOADED_FILES_ON_END;
   private boolean isPreallocateBodyBuffer = DEFAULT_PREALLOCATE_BODY_BUFFER;
-  private static final int DEFAULT_INITIAL_BODY_BUFFER_SIZE = 1024; //bytes
+  private boolean streaming = DEFAULT_STREAMING;
+  private boolean decompressionSupported = DEFAULT_DECOMPRESSION_SUPPORTED;
+  private int uploadsDirShards = DEFAULT_UPLOADS_DIRECTORY_SHARDS;
+  // completed once the uploads directory exists, null until the first upload
+  private volatile Future<Void> uploadsDirReady;
+  private volatile UploadReaper reaper;
+  private UploadSink uploadSink;
 
 
   public BodyHandlerImpl() {
@@ -81,15 +101,59 @@ public class BodyHandlerImpl implements BodyHandler {
     // we need to keep state since we can be called again on reroute
     Boolean handled = context.get(BODY_HANDLED);
     if (handled == null || !handled) {
+      // the route handling the request can override the configuration
+      final BodyOptions options = context instanceof RoutingContextImplBase ?
+        ((RoutingContextImplBase) context).nextBodyOptions() : null;
+      final long bodyLimit = options != null && options.getBodyLimit() != null ?
+        options.getBodyLimit() : this.bodyLimit;
+      final boolean handleFileUploads = options != null && options.getHandleFileUploads() != null ?
+        options.getHandleFileUploads() : this.handleFileUploads;
+      final boolean streaming = options != null && options.getStreaming() != null ?
+        options.getStreaming() : this.streaming;
+      final boolean isPreallocateBodyBuffer = options != null && options.getPreallocateBodyBuffer() != null ?
+        options.getPreallocateBodyBuffer() : this.isPreallocateBodyBuffer;
+
+      BodyDecoder decoder = null;
+      if (decompressionSupported) {
+        try {
+          decoder = BodyDecoder.create(request.getHeader(HttpHeaders.CONTENT_ENCODING), bodyLimit);
+        } catch (HttpStatusException e) {
+          context.fail(e);
+          return;
+        }
+        if (decoder != null) {
+          if (isMultipart(request)) {
+            // the server decodes multipart bodies as they are received
+            decoder.close();
+            context.fail(415);
+            return;
+          }
+          // the headers describe the encoded body
+          request.headers()
+            .remove(HttpHeaders.CONTENT_ENCODING)
+            .remove(HttpHeaders.CONTENT_LENGTH);
+        }
+      }
+      if (streaming && !isForm(request)) {
+        context.put(BODY_HANDLED, true);
+        if (bodyLimit != -1 && parseContentLengthHeader(request) > bodyLimit) {
+          // no need to read the body
+          context.fail(413);
+          return;
+        }
+        context.setBodyStream(new BStream(context, decoder, bodyLimit));
+        context.next();
+        return;
+      }
       long contentLength = isPreallocateBodyBuffer ? parseContentLengthHeader(request) : -1;
-      BHandler handler = new BHandler(context, contentLength);
+      BHandler handler = new BHandler(context, contentLength, decoder, bodyLimit, handleFileUploads);
       request.handler(handler);
       request.endHandler(v -> handler.end());
       context.put(BODY_HANDLED, true);
     } else {
       // on reroute we need to re-merge the form params if that was desired
       if (mergeFormAttributes && request.isExpectMultipart()) {
-        request.params().addAll(request.formAttributes());
+        mergeFormAttributes(request);
       }
 
       context.next();
@@ -111,6 +175,17 @@ public class BodyHandlerImpl implements BodyHandler {
   @Override
   public BodyHandler setUploadsDirectory(String uploadsDirectory) {
     this.uploadsDir = uploadsDirectory;
+    this.uploadsDirReady = null;
+    return this;
+  }
+
+  @Override
+  public BodyHandler setUploadsDirectoryShards(int shards) {
+    if (shards < 0) {
+      throw new IllegalArgumentException("shards must be positive or 0");
+    }
+    this.uploadsDirShards = shards;
+    this.uploadsDirReady = null;
     return this;
   }
 
@@ -120,6 +195,18 @@ public class BodyHandlerImpl implements BodyHandler {
     return this;
   }
 
+  @Override
+  public BodyHandler setMaxFormAttributeSize(int maxFormAttributeSize) {
+    this.maxFormAttributeSize = maxFormAttributeSize;
+    return this;
+  }
+
+  @Override
+  public BodyHandler setMaxFormAttributes(int maxFormAttributes) {
+    this.maxFormAttributes = maxFormAttributes;
+    return this;
+  }
+
   @Override
   public BodyHandler setDeleteUploadedFilesOnEnd(boolean deleteUploadedFilesOnEnd) {
     this.deleteUploadedFilesOnEnd = deleteUploadedFilesOnEnd;
@@ -132,6 +219,97 @@ public class BodyHandlerImpl implements BodyHandler {
     return this;
   }
 
+  @Override
+  public BodyHandler setUploadSink(UploadSink uploadSink) {
+    this.uploadSink = uploadSink;
+    return this;
+  }
+
+  @Override
+  public BodyHandler setStreaming(boolean streaming) {
+    this.streaming = streaming;
+    return this;
+  }
+
+  @Override
+  public BodyHandler setDecompressionSupported(boolean decompressionSupported) {
+    this.decompressionSupported = decompressionSupported;
+    return this;
+  }
+
+  /**
+   * Create the uploads directory and its shards, this is done once unless it fails.
+   */
+  private Future<Void> uploadsDirReady(Vertx vertx) {
+    Future<Void> ready = uploadsDirReady;
+    if (ready == null) {
+      final FileSystem fileSystem = vertx.fileSystem();
+      if (uploadsDirShards == 0) {
+        ready = fileSystem.mkdirs(uploadsDir);
+      } else {
+        final List<Future> shards = new ArrayList<>(uploadsDirShards);
+        for (int i = 0; i < uploadsDirShards; i++) {
+          shards.add(fileSystem.mkdirs(new File(uploadsDir, Integer.toHexString(i)).getPath()));
+        }
+        ready = CompositeFuture.all(shards).mapEmpty();
+      }
+      final Future<Void> created = ready;
+      created.onFailure(err -> {
+        // try again with the next upload
+        if (uploadsDirReady == created) {
+          uploadsDirReady = null;
+        }
+      });
+      uploadsDirReady = created;
+    }
+    return ready;
+  }
+
+  private String uploadedFileName() {
+    final String name = UUID.randomUUID().toString();
+    if (uploadsDirShards == 0) {
+      return new File(uploadsDir, name).getPath();
+    }
+    final String shard = Integer.toHexString(Math.floorMod(name.hashCode(), uploadsDirShards));
+    return new File(new File(uploadsDir, shard), name).getPath();
+  }
+
+  private UploadReaper reaper(Vertx vertx) {
+    UploadReaper reaper = this.reaper;
+    if (reaper == null || reaper.vertx() != vertx) {
+      reaper = new UploadReaper(vertx);
+      this.reaper = reaper;
+    }
+    return reaper;
+  }
+
+  /**
+   * Merge the form attributes into the params, the routing context request copies them only when the params are read.
+   */
+  private static void mergeFormAttributes(HttpServerRequest request) {
+    if (request instanceof HttpServerRequestWrapper) {
+      ((HttpServerRequestWrapper) request).mergeFormAttributes();
+    } else {
+      request.params().addAll(request.formAttributes());
+    }
+  }
+
+  private static boolean isForm(HttpServerRequest request) {
+    final String contentType = request.getHeader(HttpHeaders.CONTENT_TYPE);
+    if (contentType == null) {
+      return false;
+    }
+    final String lowerCaseContentType = contentType.toLowerCase();
+    return lowerCaseContentType.startsWith(HttpHeaderValues.MULTIPART_FORM_DATA.toString()) ||
+      lowerCaseContentType.startsWith(HttpHeaderValues.APPLICATION_X_WWW_FORM_URLENCODED.toString());
+  }
+
+  private static boolean isMultipart(HttpServerRequest request) {
+    final String contentType = request.getHeader(HttpHeaders.CONTENT_TYPE);
+    return contentType != null &&
+      contentType.toLowerCase().startsWith(HttpHeaderValues.MULTIPART_FORM_DATA.toString());
+  }
+
   private long parseContentLengthHeader(HttpServerRequest request) {
     String contentLength = request.getHeader(HttpHeaders.CONTENT_LENGTH);
     if(contentLength == null || contentLength.isEmpty()) {
@@ -150,7 +328,14 @@ public class BodyHandlerImpl implements BodyHandler {
     private static final int MAX_PREALLOCATED_BODY_BUFFER_BYTES = 65535;
 
     RoutingContext context;
+    // the configuration of the request, it hides the one of the handler
+    final long bodyLimit;
+    final boolean handleFileUploads;
     Buffer body;
+    CompositeByteBuf chunks;
+    BodyDecoder decoder;
+    FormAttributesDecoder formDecoder;
+    boolean preallocated;
     boolean failed;
     AtomicInteger uploadCount = new AtomicInteger();
     AtomicBoolean cleanup = new AtomicBoolean(false);
@@ -159,8 +344,12 @@ public class BodyHandlerImpl implements BodyHandler {
     final boolean isMultipart;
     final boolean isUrlEncoded;
 
-    public BHandler(RoutingContext context, long contentLength) {
+    public BHandler(RoutingContext context, long contentLength, BodyDecoder decoder, long bodyLimit,
+                    boolean handleFileUploads) {
       this.context = context;
+      this.decoder = decoder;
+      this.bodyLimit = bodyLimit;
+      this.handleFileUploads = handleFileUploads;
       Set<FileUpload> fileUploads = context.fileUploads();
 
       final String contentType = context.request().getHeader(HttpHeaders.CONTENT_TYPE);
@@ -175,10 +364,14 @@ public class BodyHandlerImpl implements BodyHandler {
 
       initBodyBuffer(contentLength);
 
-      if (isMultipart || isUrlEncoded) {
+      if (isUrlEncoded) {
+        // decoded as the chunks arrive instead of by the server
+        formDecoder = new FormAttributesDecoder(context.request().formAttributes(),
+          HttpUtil.getCharset(contentType, StandardCharsets.UTF_8), maxFormAttributeSize, maxFormAttributes);
+      } else if (isMultipart) {
         context.request().setExpectMultipart(true);
-        if (handleFileUploads) {
-          makeUploadDir(context.vertx().fileSystem());
+        if (handleFileUploads && uploadSink == null) {
+          waitForUploadsDir(context.vertx());
         }
         context.request().uploadHandler(upload -> {
           if (bodyLimit != -1 && upload.isSizeAvailable()) {
@@ -190,10 +383,22 @@ public class BodyHandlerImpl implements BodyHandler {
               return;
             }
           }
-          if (handleFileUploads) {
+          if (handleFileUploads && uploadSink != null) {
+            uploadCount.incrementAndGet();
+            WriteStream<Buffer> sink = uploadSink.open(context, upload);
+            fileUploads.add(new FileUploadImpl(upload, sink));
+            upload.pipeTo(sink, ar -> {
+              if (ar.succeeded()) {
+                uploadEnded();
+              } else {
+                failed = true;
+                context.fail(ar.cause());
+              }
+            });
+          } else if (handleFileUploads) {
             // we actually upload to a file with a generated filename
             uploadCount.incrementAndGet();
-            String uploadedFileName = new File(uploadsDir, UUID.randomUUID().toString()).getPath();
+            String uploadedFileName = uploadedFileName();
             upload.streamToFileSystem(uploadedFileName);
             FileUploadImpl fileUpload = new FileUploadImpl(uploadedFileName, upload);
             fileUploads.add(fileUpload);
@@ -213,28 +418,60 @@ public class BodyHandlerImpl implements BodyHandler {
     }
 
     private void initBodyBuffer(long contentLength) {
-      int initialBodyBufferSize;
-      if(contentLength < 0) {
-        initialBodyBufferSize = DEFAULT_INITIAL_BODY_BUFFER_SIZE;
-      }
-      else if(contentLength > MAX_PREALLOCATED_BODY_BUFFER_BYTES) {
-        initialBodyBufferSize = MAX_PREALLOCATED_BODY_BUFFER_BYTES;
-      }
-      else {
-        initialBodyBufferSize = (int) contentLength;
+      if (contentLength < 0 || contentLength > MAX_PREALLOCATED_BODY_BUFFER_BYTES) {
+        // the chunks are collected without copies
+        return;
       }
 
+      int initialBodyBufferSize = (int) contentLength;
       if(bodyLimit != -1) {
         initialBodyBufferSize = (int)Math.min(initialBodyBufferSize, bodyLimit);
       }
 
       this.body = Buffer.buffer(initialBodyBufferSize);
+      this.preallocated = true;
+    }
+
+    private void appendBody(Buffer buff) {
+      if (preallocated) {
+        body.appendBuffer(buff);
+      } else if (body == null) {
+        // most bodies fit in a single chunk
+        body = buff;
+      } else {
+        if (chunks == null) {
+          // never consolidate the components, it would copy the whole body
+          chunks = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+          chunks.addComponent(true, body.getByteBuf());
+        }
+        chunks.addComponent(true, buff.getByteBuf());
+      }
     }
 
-    private void makeUploadDir(FileSystem fileSystem) {
-      if (!fileSystem.existsBlocking(uploadsDir)) {
-        fileSystem.mkdirsBlocking(uploadsDir);
+    private Buffer body() {
+      if (chunks != null) {
+        return Buffer.buffer(chunks);
       }
+      return body != null ? body : Buffer.buffer();
+    }
+
+    private void waitForUploadsDir(Vertx vertx) {
+      final Future<Void> ready = uploadsDirReady(vertx);
+      if (ready.succeeded()) {
+        return;
+      }
+      // no upload can start before the directory exists
+      final HttpServerRequest request = context.request();
+      final Context requestContext = vertx.getOrCreateContext();
+      request.pause();
+      ready.onComplete(ar -> requestContext.runOnContext(v -> {
+        if (ar.succeeded()) {
+          request.resume();
+        } else {
+          failed = true;
+          context.fail(ar.cause());
+        }
+      }));
     }
 
     @Override
@@ -242,6 +479,23 @@ public class BodyHandlerImpl implements BodyHandler {
       if (failed) {
         return;
       }
+      if (decoder == null) {
+        handleChunk(buff);
+        return;
+      }
+      try {
+        decoder.decode(buff, this::handleChunk);
+      } catch (HttpStatusException e) {
+        failed = true;
+        context.fail(e);
+      }
+    }
+
+    private void handleChunk(Buffer buff) {
+      if (failed) {
+        return;
+      }
+      // the limit applies to the decoded size, a small encoded body can be huge
       uploadSize += buff.length();
       if (bodyLimit != -1 && uploadSize > bodyLimit) {
         failed = true;
@@ -249,11 +503,20 @@ public class BodyHandlerImpl implements BodyHandler {
         // enqueue a delete for the error uploads
         context.vertx().runOnContext(v -> deleteFileUploads());
       } else {
+        if (formDecoder != null) {
+          try {
+            formDecoder.decode(buff);
+          } catch (HttpStatusException e) {
+            failed = true;
+            context.fail(e);
+            return;
+          }
+        }
         // multipart requests will not end up in the request body
         // url encoded should also not, however jQuery by default
         // post in urlencoded even if the payload is something else
         if (!isMultipart /* && !isUrlEncoded */) {
-          body.appendBuffer(buff);
+          appendBody(buff);
         }
       }
     }
@@ -271,6 +534,28 @@ public class BodyHandlerImpl implements BodyHandler {
       // only be possible from this moment onwards
       ended = true;
 
+      if (decoder != null && !failed) {
+        try {
+          decoder.end(this::handleChunk);
+        } catch (HttpStatusException e) {
+          failed = true;
+          context.fail(e);
+        }
+      }
+
+      if (formDecoder != null && !failed) {
+        try {
+          formDecoder.end();
+          if (context.request() instanceof HttpServerRequestWrapper) {
+            ((HttpServerRequestWrapper) context.request()).formDecoded();
+          }
+        } catch (HttpStatusException e) {
+          failed = true;
+          context.fail(e);
+        }
+        formDecoder = null;
+      }
+
       // only if parsing is done and count is 0 then all files have been processed
       if (uploadCount.get() == 0) {
         doEnd();
@@ -280,6 +565,9 @@ public class BodyHandlerImpl implements BodyHandler {
     void doEnd() {
 
       if (failed) {
+        if (decoder != null) {
+          decoder.close();
+        }
         deleteFileUploads();
         return;
       }
@@ -289,35 +577,174 @@ public class BodyHandlerImpl implements BodyHandler {
       }
 
       HttpServerRequest req = context.request();
-      if (mergeFormAttributes && req.isExpectMultipart()) {
-        req.params().addAll(req.formAttributes());
+      if (mergeFormAttributes && (isUrlEncoded || req.isExpectMultipart())) {
+        mergeFormAttributes(req);
       }
-      context.setBody(body);
+      context.setBody(body());
 
       body = null;
+      chunks = null;
 
       context.next();
     }
 
     private void deleteFileUploads() {
       if (cleanup.compareAndSet(false, true) && handleFileUploads) {
+        final UploadReaper reaper = reaper(context.vertx());
         for (FileUpload fileUpload : context.fileUploads()) {
-          FileSystem fileSystem = context.vertx().fileSystem();
-          String uploadedFileName = fileUpload.uploadedFileName();
-          fileSystem.exists(uploadedFileName, existResult -> {
-            if (existResult.failed()) {
-              log.warn("Could not detect if uploaded file exists, not deleting: " + uploadedFileName, existResult.cause());
-            } else if (existResult.result()) {
-              fileSystem.delete(uploadedFileName, deleteResult -> {
-                if (deleteResult.failed()) {
-                  log.warn("Delete of uploaded file failed: " + uploadedFileName, deleteResult.cause());
-                }
-              });
-            }
-          });
+          // uploads to a sink have no file
+          if (fileUpload.uploadedFileName() != null) {
+            reaper.delete(fileUpload.uploadedFileName());
+          }
         }
       }
     }
   }
 
+  /**
+   * The body of a request in streaming mode. The chunks are handed to the consumer as they arrive, decoded when the
+   * body is encoded, and are counted against the body limit. The request is paused until the consumer sets a handler,
+   * and then follows the demand of the consumer.
+   */
+  private class BStream implements ReadStream<Buffer> {
+
+    final RoutingContext context;
+    final HttpServerRequest request;
+    final BodyDecoder decoder;
+    // the limit of the request, it hides the one of the handler
+    final long bodyLimit;
+    Handler<Buffer> handler;
+    Handler<Void> endHandler;
+    Handler<Throwable> exceptionHandler;
+    Throwable failure;
+    boolean paused;
+    boolean ended;
+    long uploadSize = 0L;
+
+    BStream(RoutingContext context, BodyDecoder decoder, long bodyLimit) {
+      this.context = context;
+      this.request = context.request();
+      this.decoder = decoder;
+      this.bodyLimit = bodyLimit;
+      // nothing is read until there is a consumer
+      request.pause();
+      request.handler(decoder == null ? this::handleChunk : this::handleEncodedChunk);
+      request.endHandler(v -> handleEnd());
+      request.exceptionHandler(this::handleException);
+    }
+
+    private void handleEncodedChunk(Buffer buff) {
+      if (failure != null) {
+        return;
+      }
+      try {
+        decoder.decode(buff, this::handleChunk);
+      } catch (HttpStatusException e) {
+        fail(e);
+      }
+    }
+
+    private void handleChunk(Buffer buff) {
+      if (failure != null) {
+        return;
+      }
+      uploadSize += buff.length();
+      if (bodyLimit != -1 && uploadSize > bodyLimit) {
+        fail(new HttpStatusException(413));
+        return;
+      }
+      final Handler<Buffer> h = handler;
+      if (h != null) {
+        h.handle(buff);
+      }
+    }
+
+    private void handleEnd() {
+      if (failure != null) {
+        return;
+      }
+      if (decoder != null) {
+        try {
+          decoder.end(this::handleChunk);
+        } catch (HttpStatusException e) {
+          fail(e);
+        }
+        if (failure != null) {
+          return;
+        }
+      }
+      ended = true;
+      final Handler<Void> h = endHandler;
+      if (h != null) {
+        h.handle(null);
+      }
+    }
+
+    private void handleException(Throwable t) {
+      if (failure == null) {
+        fail(t);
+      }
+    }
+
+    private void fail(Throwable t) {
+      failure = t;
+      if (decoder != null) {
+        decoder.close();
+      }
+      // let the consumer stop, the request fails anyway
+      final Handler<Throwable> h = exceptionHandler;
+      if (h != null) {
+        h.handle(t);
+      }
+      context.fail(t);
+    }
+
+    @Override
+    public ReadStream<Buffer> handler(Handler<Buffer> handler) {
+      this.handler = handler;
+      if (handler != null && !paused) {
+        request.resume();
+      }
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> pause() {
+      paused = true;
+      request.pause();
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> resume() {
+      paused = false;
+      request.resume();
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> fetch(long amount) {
+      request.fetch(amount);
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
+      this.endHandler = endHandler;
+      if (endHandler != null && ended) {
+        // the body was empty
+        endHandler.handle(null);
+      }
+      return this;
+    }
+
+    @Override
+    public ReadStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+      this.exceptionHandler = handler;
+      if (handler != null && failure != null) {
+        handler.handle(failure);
+      }
+      return this;
+    }
+  }
 }
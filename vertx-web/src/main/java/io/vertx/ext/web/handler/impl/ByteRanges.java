@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler.impl;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The byte ranges of a {@code Range} header, see <a href="https://tools.ietf.org/html/rfc7233">rfc7233</a>, and the
+ * framing of the {@code multipart/byteranges} responses sending several ranges.
+ * <p>
+ * The first and last byte positions, open ranges ({@code bytes=500-}) and suffix ranges ({@code bytes=-500}) are
+ * supported. The satisfiable ranges are sorted, and the overlapping or adjacent ranges are coalesced.
+ */
+final class ByteRanges {
+
+  /**
+   * The max number of ranges of a header, a header with more ranges is ignored and the whole file is sent
+   */
+  static final int MAX_RANGES = 32;
+
+  static final class Range {
+    // inclusive positions
+    final long start;
+    final long end;
+
+    Range(long start, long end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    long length() {
+      return end + 1 - start;
+    }
+  }
+
+  private final String boundary;
+  private final List<Range> ranges;
+  private final List<Buffer> partHeaders;
+  private final Buffer trailer;
+  private final long contentLength;
+
+  private ByteRanges(List<Range> ranges, String contentType, long size) {
+    this.boundary = Long.toHexString(ThreadLocalRandom.current().nextLong()) + Long.toHexString(ThreadLocalRandom.current().nextLong());
+    this.ranges = ranges;
+    this.partHeaders = new ArrayList<>(ranges.size());
+    long length = 0;
+    for (Range range : ranges) {
+      final StringBuilder header = new StringBuilder();
+      // the first boundary is not preceded by a line break, there is no preamble
+      if (!partHeaders.isEmpty()) {
+        header.append("\r\n");
+      }
+      header.append("--").append(boundary).append("\r\n");
+      if (contentType != null) {
+        header.append("Content-Type: ").append(contentType).append("\r\n");
+      }
+      header.append("Content-Range: bytes ").append(range.start).append('-').append(range.end).append('/').append(size).append("\r\n\r\n");
+      final Buffer partHeader = Buffer.buffer(header.toString());
+      partHeaders.add(partHeader);
+      length += partHeader.length() + range.length();
+    }
+    this.trailer = Buffer.buffer("\r\n--" + boundary + "--\r\n");
+    this.contentLength = length + trailer.length();
+  }
+
+  /**
+   * Parse a {@code Range} header.
+   *
+   * @param header the header
+   * @param size the size of the file
+   * @return the satisfiable ranges, sorted and coalesced, an empty list when no range is satisfiable or {@code null}
+   * when the header is invalid and must be ignored
+   */
+  static List<Range> parse(String header, long size) {
+    final String value = header.trim();
+    if (!value.regionMatches(true, 0, "bytes=", 0, 6)) {
+      return null;
+    }
+    final List<Range> ranges = new ArrayList<>();
+    int specs = 0;
+    int start = 6;
+    while (start <= value.length()) {
+      int end = value.indexOf(',', start);
+      if (end == -1) {
+        end = value.length();
+      }
+      final String spec = value.substring(start, end).trim();
+      start = end + 1;
+      // empty list elements are allowed
+      if (spec.isEmpty()) {
+        continue;
+      }
+      if (++specs > MAX_RANGES) {
+        return null;
+      }
+      final int dash = spec.indexOf('-');
+      if (dash == -1) {
+        return null;
+      }
+      final long first = parsePosition(spec, 0, dash);
+      final long last = parsePosition(spec, dash + 1, spec.length());
+      if (first == -1) {
+        // suffix range, the last bytes of the file
+        if (last == -1 || last == -2) {
+          return null;
+        }
+        if (last > 0 && size > 0) {
+          ranges.add(new Range(Math.max(0, size - last), size - 1));
+        }
+      } else {
+        if (first == -2 || last == -2 || last != -1 && last < first) {
+          return null;
+        }
+        if (first < size) {
+          ranges.add(new Range(first, last == -1 ? size - 1 : Math.min(last, size - 1)));
+        }
+      }
+    }
+    if (specs == 0) {
+      return null;
+    }
+    return coalesce(ranges);
+  }
+
+  /**
+   * @return the position, -1 when it is empty or -2 when it is invalid
+   */
+  private static long parsePosition(String spec, int start, int end) {
+    if (start == end) {
+      return -1;
+    }
+    // at most 18 digits, a long does not overflow
+    if (end - start > 18) {
+      return -2;
+    }
+    long position = 0;
+    for (int i = start; i < end; i++) {
+      final char c = spec.charAt(i);
+      if (c < '0' || c > '9') {
+        return -2;
+      }
+      position = position * 10 + (c - '0');
+    }
+    return position;
+  }
+
+  private static List<Range> coalesce(List<Range> ranges) {
+    if (ranges.size() < 2) {
+      return ranges;
+    }
+    ranges.sort((a, b) -> Long.compare(a.start, b.start));
+    final List<Range> coalesced = new ArrayList<>(ranges.size());
+    Range current = ranges.get(0);
+    for (int i = 1; i < ranges.size(); i++) {
+      final Range next = ranges.get(i);
+      if (next.start <= current.end + 1) {
+        current = new Range(current.start, Math.max(current.end, next.end));
+      } else {
+        coalesced.add(current);
+        current = next;
+      }
+    }
+    coalesced.add(current);
+    return coalesced;
+  }
+
+  /**
+   * Create the framing of a {@code multipart/byteranges} response.
+   *
+   * @param ranges the ranges to send
+   * @param contentType the content type of the file, or {@code null}
+   * @param size the size of the file
+   */
+  static ByteRanges multipart(List<Range> ranges, String contentType, long size) {
+    return new ByteRanges(Collections.unmodifiableList(ranges), contentType, size);
+  }
+
+  String contentType() {
+    return "multipart/byteranges; boundary=" + boundary;
+  }
+
+  long contentLength() {
+    return contentLength;
+  }
+
+  List<Range> ranges() {
+    return ranges;
+  }
+
+  /**
+   * @return the boundary and headers sent before a range
+   */
+  Buffer partHeader(int index) {
+    return partHeaders.get(index);
+  }
+
+  /**
+   * @return the closing boundary
+   */
+  Buffer trailer() {
+    return trailer;
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.Charset;
+
+/**
+ * Decodes an {@code application/x-www-form-urlencoded} body as its chunks arrive. An attribute is decoded as soon as
+ * its terminating {@code &} is received, only the bytes of the attribute spanning two chunks are kept.
+ * <p>
+ * This class is not thread-safe, it is confined to the request event loop.
+ */
+final class FormAttributesDecoder {
+
+  private final MultiMap attributes;
+  private final Charset charset;
+  private final int maxAttributeSize;
+  private final int maxAttributes;
+
+  // the bytes of the attribute not terminated yet
+  private Buffer pending;
+  private int count;
+
+  /**
+   * @param attributes  the map receiving the decoded attributes
+   * @param charset  the charset of the body
+   * @param maxAttributeSize  the max size of an encoded attribute, -1 means unlimited
+   * @param maxAttributes  the max number of attributes, -1 means unlimited
+   */
+  FormAttributesDecoder(MultiMap attributes, Charset charset, int maxAttributeSize, int maxAttributes) {
+    this.attributes = attributes;
+    this.charset = charset;
+    this.maxAttributeSize = maxAttributeSize;
+    this.maxAttributes = maxAttributes;
+  }
+
+  /**
+   * Decode the attributes terminated in a chunk of the body.
+   *
+   * @param chunk  the chunk
+   * @throws HttpStatusException 413 when a limit is exceeded, 400 when an attribute is malformed
+   */
+  void decode(Buffer chunk) {
+    // the indexes of the byte buf are the indexes of the chunk
+    final ByteBuf buf = chunk.getByteBuf();
+    final int end = chunk.length();
+    int start = 0;
+    while (start < end) {
+      final int amp = buf.indexOf(start, end, (byte) '&');
+      final int attributeEnd = amp == -1 ? end : amp;
+      final int size = (pending != null ? pending.length() : 0) + attributeEnd - start;
+      if (maxAttributeSize != -1 && size > maxAttributeSize) {
+        throw new HttpStatusException(413, "Form attribute too large");
+      }
+      if (amp == -1) {
+        if (pending == null) {
+          pending = Buffer.buffer(end - start);
+        }
+        pending.appendBuffer(chunk, start, end - start);
+        return;
+      }
+      if (pending != null) {
+        pending.appendBuffer(chunk, start, attributeEnd - start);
+        final ByteBuf attribute = pending.getByteBuf();
+        pending = null;
+        add(attribute.toString(charset));
+      } else if (attributeEnd > start) {
+        add(buf.toString(start, attributeEnd - start, charset));
+      }
+      start = amp + 1;
+    }
+  }
+
+  /**
+   * Decode the last attribute, once the whole body was received.
+   *
+   * @throws HttpStatusException 413 when a limit is exceeded, 400 when an attribute is malformed
+   */
+  void end() {
+    if (pending != null) {
+      final ByteBuf attribute = pending.getByteBuf();
+      pending = null;
+      add(attribute.toString(charset));
+    }
+  }
+
+  private void add(String attribute) {
+    if (attribute.isEmpty()) {
+      return;
+    }
+    if (maxAttributes != -1 && ++count > maxAttributes) {
+      throw new HttpStatusException(413, "Too many form attributes");
+    }
+    final int eq = attribute.indexOf('=');
+    try {
+      if (eq == -1) {
+        attributes.add(QueryStringDecoder.decodeComponent(attribute, charset), "");
+      } else {
+        attributes.add(
+          QueryStringDecoder.decodeComponent(attribute.substring(0, eq), charset),
+          QueryStringDecoder.decodeComponent(attribute.substring(eq + 1), charset));
+      }
+    } catch (IllegalArgumentException e) {
+      throw new HttpStatusException(400, "Malformed form attribute", e);
+    }
+  }
+}
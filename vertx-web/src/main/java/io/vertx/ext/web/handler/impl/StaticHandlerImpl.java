@@ -16,27 +16,40 @@
 
 package io.vertx.ext.web.handler.impl;
 
+import io.netty.buffer.Unpooled;
 import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
 import io.vertx.core.file.FileProps;
 import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
 import io.vertx.core.http.*;
 import io.vertx.core.http.impl.HttpUtils;
 import io.vertx.core.http.impl.MimeMapping;
+import io.vertx.core.impl.VertxInternal;
 import io.vertx.core.impl.logging.Logger;
 import io.vertx.core.impl.logging.LoggerFactory;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.net.impl.URIDecoder;
 import io.vertx.ext.web.Http2PushMapping;
+import io.vertx.ext.web.ParsedHeaderValue;
 import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.CacheMetrics;
 import io.vertx.ext.web.handler.StaticHandler;
-import io.vertx.ext.web.impl.LRUCache;
+import io.vertx.ext.web.impl.ClockCache;
 import io.vertx.ext.web.impl.Utils;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.netty.handler.codec.http.HttpResponseStatus.*;
 
@@ -64,12 +77,15 @@ public class StaticHandlerImpl implements StaticHandler {
   private boolean allowRootFileSystemAccess = DEFAULT_ROOT_FILESYSTEM_ACCESS;
   private boolean sendVaryHeader = DEFAULT_SEND_VARY_HEADER;
   private String defaultContentEncoding = Charset.defaultCharset().name();
+  private boolean sendPrecompressed = DEFAULT_SEND_PRECOMPRESSED;
+  private boolean sendETag = DEFAULT_SEND_ETAG;
 
   private Set<String> compressedMediaTypes = Collections.emptySet();
   private Set<String> compressedFileSuffixes = Collections.emptySet();
 
   private final FSTune tune = new FSTune();
   private final FSPropsCache cache = new FSPropsCache();
+  private final FSContentCache contentCache = new FSContentCache();
 
   private String directoryTemplate(Vertx vertx) {
     if (directoryTemplate == null) {
@@ -89,8 +105,8 @@ public class StaticHandlerImpl implements StaticHandler {
     MultiMap headers = request.response().headers();
 
     if (cache.enabled()) {
-      // We use cache-control and last-modified
-      // We *do not use* etags and expires (since they do the same thing - redundant)
+      // We use cache-control and last-modified, the etags are sent by sendFile when enabled
+      // We *do not use* expires (since it does the same thing as cache-control - redundant)
       Utils.addToMapIfAbsent(headers, HttpHeaders.CACHE_CONTROL, "public, max-age=" + maxAgeSeconds);
       Utils.addToMapIfAbsent(headers, HttpHeaders.LAST_MODIFIED, Utils.formatRFC1123DateTime(props.lastModifiedTime()));
       // We send the vary header (for intermediate caches)
@@ -143,30 +159,33 @@ public class StaticHandlerImpl implements StaticHandler {
       }
     }
 
-    // Look in cache
-    final CacheEntry entry = cache.get(path);
+    // Look in cache, out of date entries are not returned unless files are read-only
+    final CacheEntry entry = cache.get(path, filesReadOnly);
 
     if (entry != null) {
-      if ((filesReadOnly || !entry.isOutOfDate())) {
-        // a cache entry can mean 2 things:
-        // 1. a miss
-        // 2. a hit
+      // a cache entry can mean 2 things:
+      // 1. a miss
+      // 2. a hit
 
-        // a miss signals that we should continue the chain
-        if (entry.isMissing()) {
-          context.next();
-          return;
-        }
+      // a miss signals that we should continue the chain
+      if (entry.isMissing()) {
+        context.next();
+        return;
+      }
 
-        // a hit needs to be verified for freshness
-        final long lastModified = Utils.secondsFactor(entry.props.lastModifiedTime());
+      // a hit needs to be verified for freshness
+      final long lastModified = Utils.secondsFactor(entry.props.lastModifiedTime());
+      // the etag of a precompressed file is only known once the coding is negotiated
+      final String etag = sendETag && !sendPrecompressed ? entry.etag() : null;
+      if (etag != null) {
+        context.response().putHeader(HttpHeaders.ETAG, '"' + etag + '"');
+      }
 
-        if (Utils.fresh(context, lastModified)) {
-          context.response()
-            .setStatusCode(NOT_MODIFIED.code())
-            .end();
-          return;
-        }
+      if (Utils.fresh(context, lastModified)) {
+        context.response()
+          .setStatusCode(NOT_MODIFIED.code())
+          .end();
+        return;
       }
     }
 
@@ -207,15 +226,22 @@ public class StaticHandlerImpl implements StaticHandler {
               }
               sendDirectory(context, path, sfile);
             } else {
+              CacheEntry fileEntry = null;
               if (cache.enabled()) {
-                cache.put(path, fprops);
+                fileEntry = cache.put(path, fprops);
 
+                // without an etag a request with If-None-Match is not fresh, it is checked again once the etag is known
                 if (Utils.fresh(context, Utils.secondsFactor(fprops.lastModifiedTime()))) {
                   context.response().setStatusCode(NOT_MODIFIED.code()).end();
                   return;
                 }
               }
-              sendFile(context, sfile, fprops);
+              final String etag = contentHash(context.vertx(), sfile, fileEntry);
+              if (sendPrecompressed) {
+                sendPrecompressed(context, path, sfile, fprops, etag, acceptedPrecompressedCodings(context), 0);
+              } else {
+                sendFile(context, sfile, fprops, null, etag);
+              }
             }
           } else {
             context.fail(res.cause());
@@ -273,59 +299,211 @@ public class StaticHandlerImpl implements StaticHandler {
     }
   }
 
-  private static final Pattern RANGE = Pattern.compile("^bytes=(\\d+)-(\\d*)$");
+  // the content codings of the precompressed files and their file suffix, by order of preference
+  private static final String[][] PRECOMPRESSED = {{"br", ".br"}, {"gzip", ".gz"}};
+
+  /**
+   * @return the indexes in {@link #PRECOMPRESSED} of the codings accepted by the request, by order of preference
+   */
+  private List<Integer> acceptedPrecompressedCodings(RoutingContext context) {
+    final HttpServerRequest request = context.request();
+    // a range applies to the representation, only whole files are sent precompressed
+    if (rangeSupport && request.getHeader("Range") != null) {
+      return Collections.emptyList();
+    }
+    final List<ParsedHeaderValue> accepted = context.parsedHeaders().acceptEncoding();
+    if (accepted.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final List<Integer> codings = new ArrayList<>(PRECOMPRESSED.length);
+    final Set<String> refused = new HashSet<>();
+    for (ParsedHeaderValue value : accepted) {
+      if (value.weight() <= 0) {
+        refused.add(coding(value));
+      }
+    }
+    // the values are sorted by weight
+    for (ParsedHeaderValue value : accepted) {
+      final String coding = coding(value);
+      if (value.weight() <= 0 || "identity".equals(coding)) {
+        break;
+      }
+      for (int i = 0; i < PRECOMPRESSED.length; i++) {
+        final String precompressed = PRECOMPRESSED[i][0];
+        if ((precompressed.equals(coding) || "*".equals(coding) && !refused.contains(precompressed)) && !codings.contains(i)) {
+          codings.add(i);
+        }
+      }
+    }
+    return codings;
+  }
+
+  private static String coding(ParsedHeaderValue value) {
+    final String coding = value.value().trim().toLowerCase();
+    return "x-gzip".equals(coding) ? "gzip" : coding;
+  }
+
+  /**
+   * Send the first precompressed file of the accepted codings, or the original file when none exists. The props of
+   * the precompressed files are cached with the props of the original files.
+   */
+  private void sendPrecompressed(RoutingContext context, String path, String file, FileProps fileProps, String etag, List<Integer> codings, int index) {
+    if (index == codings.size()) {
+      sendFile(context, file, fileProps, null, etag);
+      return;
+    }
+    final String contentEncoding = PRECOMPRESSED[codings.get(index)][0];
+    final String suffix = PRECOMPRESSED[codings.get(index)][1];
+    final String compressedPath = path + suffix;
+    final String compressedFile = file + suffix;
+    final CacheEntry entry = cache.get(compressedPath, filesReadOnly);
+    if (entry != null) {
+      if (isPrecompressedOf(entry.props, fileProps)) {
+        sendFile(context, compressedFile, entry.props, contentEncoding, etag);
+      } else {
+        sendPrecompressed(context, path, file, fileProps, etag, codings, index + 1);
+      }
+      return;
+    }
+    getFileProps(context, compressedFile, res -> {
+      // a missing file is a failure
+      final FileProps compressedProps = res.succeeded() ? res.result() : null;
+      if (cache.enabled()) {
+        cache.put(compressedPath, compressedProps);
+      }
+      if (isPrecompressedOf(compressedProps, fileProps)) {
+        sendFile(context, compressedFile, compressedProps, contentEncoding, etag);
+      } else {
+        sendPrecompressed(context, path, file, fileProps, etag, codings, index + 1);
+      }
+    });
+  }
+
+  /**
+   * Get the content hash of a file. It is computed once per file on a worker thread and cached with the file props,
+   * the file is sent without an etag until the hash is known rather than waiting for the whole file to be read.
+   *
+   * @return the hash or {@code null} when etags are not sent or the hash is not known yet
+   */
+  private String contentHash(Vertx vertx, String file, CacheEntry entry) {
+    if (!sendETag || entry == null) {
+      return null;
+    }
+    final Future<String> hash = entry.hash.get();
+    if (hash != null) {
+      return hash.succeeded() ? hash.result() : null;
+    }
+    final Promise<String> promise = Promise.promise();
+    final Future<String> future = promise.future();
+    // only the first request of the concurrent requests computes the hash
+    if (entry.hash.compareAndSet(null, future)) {
+      vertx.<String>executeBlocking(blocking -> {
+        try (InputStream in = Files.newInputStream(((VertxInternal) vertx).resolveFile(file).toPath())) {
+          blocking.complete(sha256(in));
+        } catch (IOException | NoSuchAlgorithmException e) {
+          blocking.fail(e);
+        }
+      }, false, res -> {
+        if (res.failed()) {
+          log.warn("Could not compute the etag of " + file, res.cause());
+          // a later request tries again
+          entry.hash.compareAndSet(future, null);
+        } else {
+          promise.complete(res.result());
+        }
+      });
+    }
+    return null;
+  }
+
+  private static String sha256(InputStream in) throws IOException, NoSuchAlgorithmException {
+    final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    final byte[] chunk = new byte[8192];
+    int read;
+    while ((read = in.read(chunk)) != -1) {
+      digest.update(chunk, 0, read);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+  }
+
+  /**
+   * @return whether the range of a request should be sent, according to its {@code If-Range} header
+   */
+  private static boolean ifRange(HttpServerRequest request, String etag, FileProps fileProps) {
+    final String ifRange = request.getHeader("If-Range");
+    if (ifRange == null) {
+      return true;
+    }
+    if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+      // strong comparison, a weak etag never matches
+      return ifRange.equals(etag);
+    }
+    return Utils.parseRFC1123DateTime(ifRange) == Utils.secondsFactor(fileProps.lastModifiedTime());
+  }
+
+  private static boolean isPrecompressedOf(FileProps compressedProps, FileProps fileProps) {
+    // a precompressed file older than the original file is out of date
+    return compressedProps != null && compressedProps.isRegularFile() && compressedProps.lastModifiedTime() >= fileProps.lastModifiedTime();
+  }
 
-  private void sendFile(RoutingContext context, String file, FileProps fileProps) {
+  /**
+   * Send a file.
+   *
+   * @param file the file to send
+   * @param fileProps the props of the file
+   * @param contentEncoding the content coding of a precompressed file, or {@code null}
+   * @param contentHash the content hash of the original file, or {@code null} when etags are not sent
+   */
+  private void sendFile(RoutingContext context, String file, FileProps fileProps, String contentEncoding, String contentHash) {
     final HttpServerRequest request = context.request();
     final HttpServerResponse response = context.response();
 
-    Long offset = null;
-    Long end = null;
     MultiMap headers = null;
 
     if (response.closed())
       return;
 
+    if (contentEncoding != null) {
+      response.putHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+      // the representation depends on the accepted codings
+      Utils.addToMapIfAbsent(response.headers(), "Vary", "accept-encoding");
+    }
+
+    String etag = null;
+    if (contentHash != null) {
+      // a precompressed file is a different representation of the same content
+      etag = '"' + (contentEncoding == null ? contentHash : contentHash + "-" + contentEncoding) + '"';
+      response.putHeader(HttpHeaders.ETAG, etag);
+      if (request.headers().contains(HttpHeaders.IF_NONE_MATCH) && Utils.fresh(context, Utils.secondsFactor(fileProps.lastModifiedTime()))) {
+        response.setStatusCode(NOT_MODIFIED.code()).end();
+        return;
+      }
+    }
+
+    List<ByteRanges.Range> ranges = null;
+
     if (rangeSupport) {
-      // check if the client is making a range request
-      String range = request.getHeader("Range");
-      // end byte is length - 1
-      end = fileProps.size() - 1;
-
-      if (range != null) {
-        Matcher m = RANGE.matcher(range);
-        if (m.matches()) {
-          try {
-            String part = m.group(1);
-            // offset cannot be empty
-            offset = Long.parseLong(part);
-            // offset must fall inside the limits of the file
-            if (offset < 0 || offset >= fileProps.size()) {
-              throw new IndexOutOfBoundsException();
-            }
-            // length can be empty
-            part = m.group(2);
-            if (part != null && part.length() > 0) {
-              // ranges are inclusive
-              end = Math.min(end, Long.parseLong(part));
-              // end offset must not be smaller than start offset
-              if (end < offset) {
-                throw new IndexOutOfBoundsException();
-              }
-            }
-          } catch (NumberFormatException | IndexOutOfBoundsException e) {
-            context.response().putHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileProps.size());
-            context.fail(REQUESTED_RANGE_NOT_SATISFIABLE.code());
-            return;
-          }
+      // check if the client is making a range request, ranges only apply to GET
+      String range = request.method() == HttpMethod.GET ? request.getHeader("Range") : null;
+
+      // a range of a modified file is not sent, the whole file is
+      if (range != null && ifRange(request, etag, fileProps)) {
+        // an invalid header is ignored
+        ranges = ByteRanges.parse(range, fileProps.size());
+        if (ranges != null && ranges.isEmpty()) {
+          context.response().putHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileProps.size());
+          context.fail(REQUESTED_RANGE_NOT_SATISFIABLE.code());
+          return;
         }
       }
 
       // notify client we support range requests
       headers = response.headers();
       headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
-      // send the content length even for HEAD requests
-      headers.set(HttpHeaders.CONTENT_LENGTH, Long.toString(end + 1 - (offset == null ? 0 : offset)));
+      if (ranges == null) {
+        // send the content length even for HEAD requests
+        headers.set(HttpHeaders.CONTENT_LENGTH, Long.toString(fileProps.size()));
+      }
     }
 
     writeCacheHeaders(request, fileProps);
@@ -333,34 +511,40 @@ public class StaticHandlerImpl implements StaticHandler {
     if (request.method() == HttpMethod.HEAD) {
       response.end();
     } else {
-      if (rangeSupport && offset != null) {
-        // must return content range
-        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + end + "/" + fileProps.size());
+      if (ranges != null) {
         // return a partial response
         response.setStatusCode(PARTIAL_CONTENT.code());
-
-        final long finalOffset = offset;
-        final long finalLength = end + 1 - offset;
         // guess content type
         String contentType = MimeMapping.getMimeTypeForFilename(file);
-        if (contentType != null) {
-          if (contentType.startsWith("text")) {
-            response.putHeader(HttpHeaders.CONTENT_TYPE, contentType + ";charset=" + defaultContentEncoding);
-          } else {
-            response.putHeader(HttpHeaders.CONTENT_TYPE, contentType);
-          }
+        if (contentType != null && contentType.startsWith("text")) {
+          contentType = contentType + ";charset=" + defaultContentEncoding;
         }
 
-        response.sendFile(file, finalOffset, finalLength, res2 -> {
-          if (res2.failed()) {
-            context.fail(res2.cause());
+        if (ranges.size() == 1) {
+          final ByteRanges.Range range = ranges.get(0);
+          // must return content range
+          headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + range.start + "-" + range.end + "/" + fileProps.size());
+          headers.set(HttpHeaders.CONTENT_LENGTH, Long.toString(range.length()));
+          if (contentType != null) {
+            response.putHeader(HttpHeaders.CONTENT_TYPE, contentType);
           }
-        });
+
+          response.sendFile(file, range.start, range.length(), res2 -> {
+            if (res2.failed()) {
+              context.fail(res2.cause());
+            }
+          });
+        } else {
+          final ByteRanges multipart = ByteRanges.multipart(ranges, contentType, fileProps.size());
+          headers.set(HttpHeaders.CONTENT_TYPE, multipart.contentType());
+          headers.set(HttpHeaders.CONTENT_LENGTH, Long.toString(multipart.contentLength()));
+          sendRanges(context, file, multipart);
+        }
       } else {
-        // guess content type
-        String extension = getFileExtension(file);
+        // guess content type, from the original file of a precompressed file
+        String extension = getFileExtension(contentEncoding == null ? file : file.substring(0, file.lastIndexOf('.')));
         String contentType = MimeMapping.getMimeTypeForExtension(extension);
-        if (compressedMediaTypes.contains(contentType) || compressedFileSuffixes.contains(extension)) {
+        if (contentEncoding == null && (compressedMediaTypes.contains(contentType) || compressedFileSuffixes.contains(extension))) {
           response.putHeader(HttpHeaders.CONTENT_ENCODING, HttpHeaders.IDENTITY);
         }
         if (contentType != null) {
@@ -418,12 +602,160 @@ public class StaticHandlerImpl implements StaticHandler {
           response.putHeader("Link", links);
         }
 
-        response.sendFile(file, res2 -> {
-          if (res2.failed()) {
-            context.fail(res2.cause());
+        sendContent(context, file, fileProps);
+      }
+    }
+  }
+
+  private void sendContent(RoutingContext context, String file, FileProps fileProps) {
+    final HttpServerResponse response = context.response();
+
+    if (contentCache.accepts(fileProps)) {
+      final Buffer content = contentCache.get(file, fileProps);
+      if (content != null) {
+        // a single write of the cached content
+        response.end(content);
+        return;
+      }
+      context.vertx().fileSystem().readFile(file, res -> {
+        if (res.failed()) {
+          context.fail(res.cause());
+        } else if (res.result().length() != fileProps.size()) {
+          // the file was modified since its props were read
+          sendFileFromFS(context, file);
+        } else {
+          final Buffer cached = contentCache.put(file, fileProps, res.result());
+          if (!response.closed() && !response.ended()) {
+            response.end(cached);
           }
-        });
+        }
+      });
+    } else {
+      sendFileFromFS(context, file);
+    }
+  }
+
+  private void sendFileFromFS(RoutingContext context, String file) {
+    context.response().sendFile(file, res2 -> {
+      if (res2.failed()) {
+        context.fail(res2.cause());
       }
+    });
+  }
+
+  private static final int RANGE_CHUNK_SIZE = 64 * 1024;
+
+  /**
+   * Send the ranges of a file as a {@code multipart/byteranges} body. A response cannot be sent with several
+   * {@code sendFile} calls, the ranges are read in chunks from the file and written as the response is drained.
+   */
+  private void sendRanges(RoutingContext context, String file, ByteRanges multipart) {
+    context.vertx().fileSystem().open(file, new OpenOptions().setRead(true).setWrite(false).setCreate(false), res -> {
+      if (res.failed()) {
+        context.fail(res.cause());
+      } else {
+        new MultipartRangesWriter(context.response(), res.result(), multipart).start();
+      }
+    });
+  }
+
+  /**
+   * Writes the ranges of an open file to a response. The file is closed once the body is written, or as soon as a
+   * write fails or the response is closed, e.g. when the client aborts the download. The abort is detected from the
+   * completion of the writes, the handlers of the response are left to the application and the other handlers.
+   */
+  private static final class MultipartRangesWriter {
+
+    private final HttpServerResponse response;
+    private final AsyncFile file;
+    private final ByteRanges multipart;
+    private boolean done;
+    // the write to resume once a pending write completes, when the write queue of the response is full
+    private Runnable resume;
+
+    private MultipartRangesWriter(HttpServerResponse response, AsyncFile file, ByteRanges multipart) {
+      this.response = response;
+      this.file = file;
+      this.multipart = multipart;
+    }
+
+    void start() {
+      writePart(0);
+    }
+
+    private void close() {
+      if (!done) {
+        done = true;
+        resume = null;
+        file.close();
+      }
+    }
+
+    /**
+     * @return whether the writer stopped, the response is ended or closed
+     */
+    private boolean stopped() {
+      if (!done && (response.closed() || response.ended())) {
+        close();
+      }
+      return done;
+    }
+
+    private void written(AsyncResult<Void> ar) {
+      if (ar.failed()) {
+        // the connection is closed, the pending writes fail
+        close();
+        return;
+      }
+      final Runnable resume = this.resume;
+      if (resume != null && !response.writeQueueFull()) {
+        this.resume = null;
+        resume.run();
+      }
+    }
+
+    private void writePart(int index) {
+      if (stopped()) {
+        return;
+      }
+      if (index == multipart.ranges().size()) {
+        close();
+        response.end(multipart.trailer());
+      } else {
+        response.write(multipart.partHeader(index), this::written);
+        writeRange(index, multipart.ranges().get(index).start);
+      }
+    }
+
+    private void writeRange(int index, long position) {
+      if (stopped()) {
+        return;
+      }
+      final ByteRanges.Range range = multipart.ranges().get(index);
+      if (position > range.end) {
+        writePart(index + 1);
+        return;
+      }
+      if (response.writeQueueFull()) {
+        // a write is pending, its completion resumes the writer
+        resume = () -> writeRange(index, position);
+        return;
+      }
+      final int length = (int) Math.min(RANGE_CHUNK_SIZE, range.end + 1 - position);
+      file.read(Buffer.buffer(length), 0, position, length, res -> {
+        if (stopped()) {
+          return;
+        }
+        if (res.failed() || res.result().length() == 0) {
+          // the file was truncated since its props were read, the head is already sent
+          log.error("Could not read the ranges of a file", res.cause());
+          close();
+          response.close();
+          return;
+        }
+        response.write(res.result(), this::written);
+        writeRange(index, position + res.result().length());
+      });
     }
   }
 
@@ -561,6 +893,52 @@ public class StaticHandlerImpl implements StaticHandler {
     return this;
   }
 
+  @Override
+  public StaticHandler setMaxCachedFileSize(int maxCachedFileSize) {
+    contentCache.setMaxFileSize(maxCachedFileSize);
+    return this;
+  }
+
+  @Override
+  public StaticHandler setContentCacheSize(long contentCacheSize) {
+    contentCache.setMaxSize(contentCacheSize);
+    return this;
+  }
+
+  @Override
+  public StaticHandler setSendPrecompressed(boolean sendPrecompressed) {
+    this.sendPrecompressed = sendPrecompressed;
+    return this;
+  }
+
+  @Override
+  public StaticHandler setSendETag(boolean sendETag) {
+    this.sendETag = sendETag;
+    return this;
+  }
+
+  @Override
+  public CacheMetrics propsCacheMetrics() {
+    return metrics(cache.propsCache);
+  }
+
+  @Override
+  public CacheMetrics contentCacheMetrics() {
+    return metrics(contentCache.contentCache);
+  }
+
+  private static CacheMetrics metrics(ClockCache<String, ?> cache) {
+    final CacheMetrics metrics = new CacheMetrics();
+    if (cache != null) {
+      metrics
+        .setSize(cache.size())
+        .setHits(cache.hits())
+        .setMisses(cache.misses())
+        .setEvictions(cache.evictions());
+    }
+    return metrics;
+  }
+
   private String getFile(String path, RoutingContext context) {
     String file = webRoot + Utils.pathOffset(path, context);
     if (log.isTraceEnabled()) log.trace("File to serve is " + file);
@@ -688,23 +1066,38 @@ public class StaticHandlerImpl implements StaticHandler {
   }
 
   private static final class CacheEntry {
-    final long createDate = System.currentTimeMillis();
-
     final FileProps props;
-    final long cacheEntryTimeout;
+    // the content hash of the file, computed on demand and shared by the entries of an unmodified file
+    final AtomicReference<Future<String>> hash;
+    final long created = System.nanoTime();
 
-    private CacheEntry(FileProps props, long cacheEntryTimeout) {
-      this.props = props;
-      this.cacheEntryTimeout = cacheEntryTimeout;
+    private CacheEntry(FileProps props) {
+      this(props, new AtomicReference<>());
     }
 
-    boolean isOutOfDate() {
-      return System.currentTimeMillis() - createDate > cacheEntryTimeout;
+    private CacheEntry(FileProps props, AtomicReference<Future<String>> hash) {
+      this.props = props;
+      this.hash = hash;
     }
 
     public boolean isMissing() {
       return props == null;
     }
+
+    boolean isPropsOf(FileProps other) {
+      if (props == null || other == null) {
+        return props == other;
+      }
+      return props.size() == other.size() && props.lastModifiedTime() == other.lastModifiedTime();
+    }
+
+    /**
+     * @return the content hash, or {@code null} when it is not known yet
+     */
+    String etag() {
+      final Future<String> etag = hash.get();
+      return etag != null && etag.succeeded() ? etag.result() : null;
+    }
   }
 
   private static class FSTune {
@@ -766,9 +1159,16 @@ public class StaticHandlerImpl implements StaticHandler {
     }
   }
 
+  /**
+   * The file props by path. The cache is shared by the event loops serving the handler, it is replaced rather than
+   * modified when its configuration changes.
+   * <p>
+   * An out of date entry is not returned, it counts as a miss, but stays cached until the file props are read again so
+   * the content hash of an unmodified file is kept. The entries are not expired by the cache itself for that reason.
+   */
   private static class FSPropsCache {
-    private Map<String, CacheEntry> propsCache;
-    private long cacheEntryTimeout = DEFAULT_CACHE_ENTRY_TIMEOUT;
+    private volatile ClockCache<String, CacheEntry> propsCache;
+    private volatile long cacheEntryTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_CACHE_ENTRY_TIMEOUT);
     private int maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
 
     FSPropsCache() {
@@ -796,11 +1196,8 @@ public class StaticHandlerImpl implements StaticHandler {
 
     private synchronized void setEnabled(boolean enable, boolean force) {
       if (force || enable != enabled()) {
-        if (propsCache != null) {
-          propsCache.clear();
-        }
         if (enable) {
-          propsCache = new LRUCache<>(maxCacheSize);
+          propsCache = new ClockCache<>(maxCacheSize);
         } else {
           propsCache = null;
         }
@@ -811,28 +1208,136 @@ public class StaticHandlerImpl implements StaticHandler {
       if (timeout < 1) {
         throw new IllegalArgumentException("timeout must be >= 1");
       }
-      this.cacheEntryTimeout = timeout;
+      this.cacheEntryTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
     }
 
     private void remove(String path) {
+      final ClockCache<String, CacheEntry> propsCache = this.propsCache;
       if (propsCache != null) {
         propsCache.remove(path);
       }
     }
 
-    CacheEntry get(String key) {
+    private boolean isUpToDate(CacheEntry entry) {
+      return System.nanoTime() - entry.created <= cacheEntryTimeoutNanos;
+    }
+
+    CacheEntry get(String key, boolean readOnly) {
+      final ClockCache<String, CacheEntry> propsCache = this.propsCache;
       if (propsCache != null) {
-        return propsCache.get(key);
+        return propsCache.get(key, entry -> readOnly || isUpToDate(entry));
       }
 
       return null;
     }
 
-    void put(String path, FileProps props) {
+    CacheEntry put(String path, FileProps props) {
+      final ClockCache<String, CacheEntry> propsCache = this.propsCache;
       if (propsCache != null) {
-        CacheEntry now = new CacheEntry(props, cacheEntryTimeout);
-        propsCache.put(path, now);
+        // not a lookup of the handler, the counters are left alone
+        final CacheEntry previous = propsCache.peek(path);
+        final CacheEntry entry;
+        if (previous != null && previous.isPropsOf(props)) {
+          // the file was not modified, the entry and its content hash are kept
+          if (isUpToDate(previous)) {
+            return previous;
+          }
+          entry = new CacheEntry(props, previous.hash);
+        } else {
+          entry = new CacheEntry(props);
+        }
+        propsCache.put(path, entry);
+        return entry;
+      }
+      return null;
+    }
+  }
+
+  private static final class CachedContent {
+    final long lastModified;
+    final long size;
+    final Buffer content;
+
+    private CachedContent(FileProps props, Buffer content) {
+      this.lastModified = props.lastModifiedTime();
+      this.size = props.size();
+      this.content = content;
+    }
+
+    boolean isPropsOf(FileProps props) {
+      return lastModified == props.lastModifiedTime() && size == props.size();
+    }
+  }
+
+  /**
+   * The content of the small files by file name, held in read-only direct buffers shared by the event loops and
+   * bounded by their total size. The content is only served for the file props it was read with, a modified file is
+   * read again.
+   */
+  private static class FSContentCache {
+    private volatile ClockCache<String, CachedContent> contentCache;
+    // the max size of a cached file, also bounded by the size of the cache
+    private volatile long maxCachedFileSize;
+    private int maxFileSize = DEFAULT_MAX_CACHED_FILE_SIZE;
+    private long maxSize = DEFAULT_CONTENT_CACHE_SIZE;
+
+    synchronized void setMaxFileSize(int maxFileSize) {
+      if (maxFileSize < 0) {
+        throw new IllegalArgumentException("maxCachedFileSize must be >= 0");
+      }
+      if (this.maxFileSize != maxFileSize) {
+        this.maxFileSize = maxFileSize;
+        reset();
+      }
+    }
+
+    synchronized void setMaxSize(long maxSize) {
+      if (maxSize < 1) {
+        throw new IllegalArgumentException("contentCacheSize must be >= 1");
+      }
+      if (this.maxSize != maxSize) {
+        this.maxSize = maxSize;
+        reset();
+      }
+    }
+
+    private void reset() {
+      if (maxFileSize > 0) {
+        maxCachedFileSize = Math.min(maxFileSize, maxSize);
+        contentCache = new ClockCache<>(maxSize, cached -> cached.content.length());
+      } else {
+        contentCache = null;
+      }
+    }
+
+    boolean accepts(FileProps props) {
+      return contentCache != null && props.size() <= maxCachedFileSize;
+    }
+
+    Buffer get(String file, FileProps props) {
+      final ClockCache<String, CachedContent> contentCache = this.contentCache;
+      if (contentCache != null) {
+        // the content of a modified file is a miss
+        final CachedContent cached = contentCache.get(file, c -> c.isPropsOf(props));
+        if (cached != null) {
+          return cached.content;
+        }
+      }
+      return null;
+    }
+
+    Buffer put(String file, FileProps props, Buffer content) {
+      final ClockCache<String, CachedContent> contentCache = this.contentCache;
+      if (contentCache == null) {
+        return content;
       }
+      // the memory of a wrapped NIO buffer is reclaimed by the GC once the content is evicted
+      final ByteBuffer direct = ByteBuffer.allocateDirect(content.length());
+      content.getByteBuf().readBytes(direct);
+      direct.flip();
+      final Buffer cached = Buffer.buffer(Unpooled.wrappedBuffer(direct.asReadOnlyBuffer()));
+      contentCache.put(file, new CachedContent(props, cached));
+      return cached;
     }
   }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler.impl;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.logging.Logger;
+import io.vertx.core.impl.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes uploaded files in the background. The files to delete are queued, and a single worker task deletes all the
+ * queued files, so the cleanup of many requests only takes one worker thread at a time.
+ * <p>
+ * This class is thread-safe
+ */
+final class UploadReaper {
+
+  private static final Logger log = LoggerFactory.getLogger(UploadReaper.class);
+
+  private final Vertx vertx;
+  private final Queue<String> files = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean draining = new AtomicBoolean();
+
+  UploadReaper(Vertx vertx) {
+    this.vertx = vertx;
+  }
+
+  Vertx vertx() {
+    return vertx;
+  }
+
+  /**
+   * Queue the deletion of a file, missing files are ignored.
+   *
+   * @param file  the file to delete
+   */
+  void delete(String file) {
+    files.add(file);
+    drain();
+  }
+
+  private void drain() {
+    if (draining.compareAndSet(false, true)) {
+      vertx.<Void>executeBlocking(promise -> {
+        String file;
+        while ((file = files.poll()) != null) {
+          try {
+            Files.deleteIfExists(Paths.get(file));
+          } catch (IOException | RuntimeException e) {
+            log.warn("Delete of uploaded file failed: " + file, e);
+          }
+        }
+        promise.complete();
+      }, false, ar -> {
+        draining.set(false);
+        // files queued while the task was ending
+        if (!files.isEmpty()) {
+          drain();
+        }
+      });
+    }
+  }
+}
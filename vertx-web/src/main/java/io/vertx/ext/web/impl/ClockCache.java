@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * A size bounded cache shared by event loops, without locks. The entries are kept in a {@link ConcurrentHashMap} so
+ * reads never block, and are evicted in approximately LRU order with the CLOCK algorithm: the entries are queued in
+ * insertion order, a read marks its entry as referenced, and the eviction gives a referenced entry a second chance by
+ * queuing it again instead of removing it.
+ * <p>
+ * The cache is bounded by its number of entries, or by the total weight of its entries when it has a weigher, e.g. the
+ * size in bytes of the values.
+ * <p>
+ * A read can be given a check of the value, e.g. whether it is out of date, a value failing the check is not returned
+ * but stays cached. The hits, misses and evictions are counted.
+ * <p>
+ * This class is thread-safe
+ */
+public final class ClockCache<K, V> {
+
+  private static final class Node<K, V> {
+    final K key;
+    final V value;
+    final int weight;
+    volatile boolean referenced;
+    // no longer in the map, the node is dropped when dequeued
+    volatile boolean removed;
+
+    Node(K key, V value, int weight) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  private final long maxWeight;
+  private final ToIntFunction<V> weigher;
+  private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<Node<K, V>> clock = new ConcurrentLinkedQueue<>();
+  // the size of the map and of the queue, the queue also holds removed nodes until they are dequeued
+  private final AtomicInteger size = new AtomicInteger();
+  private final AtomicInteger queued = new AtomicInteger();
+  // the total weight of the map, its size without a weigher
+  private final AtomicLong weight = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public ClockCache(int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be >= 1");
+    }
+    this.maxWeight = maxSize;
+    this.weigher = null;
+  }
+
+  /**
+   * Create a cache bounded by the total weight of its values.
+   *
+   * @param maxWeight the max total weight
+   * @param weigher the weight of a value
+   */
+  public ClockCache(long maxWeight, ToIntFunction<V> weigher) {
+    if (maxWeight < 1) {
+      throw new IllegalArgumentException("maxWeight must be >= 1");
+    }
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+  }
+
+  /**
+   * Get the value of a key.
+   *
+   * @param key the key
+   * @return the value or {@code null} when the key is not cached
+   */
+  public V get(K key) {
+    return get(key, null);
+  }
+
+  /**
+   * Get the value of a key, if it passes the given check.
+   *
+   * @param key the key
+   * @param check the check of the value, or {@code null}
+   * @return the value or {@code null} when the key is not cached or its value fails the check, this counts as a miss
+   */
+  public V get(K key, Predicate<? super V> check) {
+    final Node<K, V> node = map.get(key);
+    if (node == null || check != null && !check.test(node.value)) {
+      misses.increment();
+      return null;
+    }
+    // only written once, a hot entry is not written by every read
+    if (!node.referenced) {
+      node.referenced = true;
+    }
+    hits.increment();
+    return node.value;
+  }
+
+  /**
+   * Get the value of a key without counting a hit or a miss, nor marking the entry as referenced.
+   *
+   * @param key the key
+   * @return the value or {@code null} when the key is not cached
+   */
+  public V peek(K key) {
+    final Node<K, V> node = map.get(key);
+    return node == null ? null : node.value;
+  }
+
+  /**
+   * Put the value of a key, an entry is evicted when the cache is full.
+   *
+   * @param key the key
+   * @param value the value
+   */
+  public void put(K key, V value) {
+    final Node<K, V> node = new Node<>(key, value, weigher == null ? 1 : weigher.applyAsInt(value));
+    final Node<K, V> previous = map.put(key, node);
+    size.incrementAndGet();
+    weight.addAndGet(node.weight);
+    if (previous != null) {
+      removed(previous);
+    }
+    clock.add(node);
+    queued.incrementAndGet();
+    if (mustEvict()) {
+      evict();
+    }
+  }
+
+  /**
+   * Remove the value of a key.
+   *
+   * @param key the key
+   */
+  public void remove(K key) {
+    final Node<K, V> node = map.remove(key);
+    if (node != null) {
+      removed(node);
+    }
+  }
+
+  private void removed(Node<K, V> node) {
+    node.removed = true;
+    size.decrementAndGet();
+    weight.addAndGet(-node.weight);
+  }
+
+  private boolean mustEvict() {
+    // the removed nodes are dropped from the queue once it holds twice the live nodes
+    return weight.get() > maxWeight || queued.get() > 2 * size.get() + 16;
+  }
+
+  private void evict() {
+    // a referenced node is queued again once, two turns of the clock are enough
+    int turns = 2 * queued.get() + 1;
+    Node<K, V> node;
+    while (turns-- > 0 && mustEvict() && (node = clock.poll()) != null) {
+      if (node.removed) {
+        queued.decrementAndGet();
+      } else if (weight.get() <= maxWeight) {
+        // the queue is only cleaned from the removed nodes
+        clock.add(node);
+      } else if (node.referenced) {
+        // second chance
+        node.referenced = false;
+        clock.add(node);
+      } else {
+        queued.decrementAndGet();
+        if (map.remove(node.key, node)) {
+          removed(node);
+          evictions.increment();
+        }
+      }
+    }
+  }
+
+  public int size() {
+    return size.get();
+  }
+
+  /**
+   * @return the total weight of the values, the size when the cache has no weigher
+   */
+  public long weight() {
+    return weight.get();
+  }
+
+  public long hits() {
+    return hits.sum();
+  }
+
+  public long misses() {
+    return misses.sum();
+  }
+
+  public long evictions() {
+    return evictions.sum();
+  }
+}
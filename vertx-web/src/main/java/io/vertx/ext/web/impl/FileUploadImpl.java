@@ -16,7 +16,9 @@
 
 package io.vertx.ext.web.impl;
 
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpServerFileUpload;
+import io.vertx.core.streams.WriteStream;
 import io.vertx.ext.web.FileUpload;
 
 /**
@@ -26,10 +28,18 @@ public class FileUploadImpl implements FileUpload {
 
   private final String uploadedFileName;
   private final HttpServerFileUpload upload;
+  private final WriteStream<Buffer> sink;
 
   public FileUploadImpl(String uploadedFileName, HttpServerFileUpload upload) {
     this.uploadedFileName = uploadedFileName;
     this.upload = upload;
+    this.sink = null;
+  }
+
+  public FileUploadImpl(HttpServerFileUpload upload, WriteStream<Buffer> sink) {
+    this.uploadedFileName = null;
+    this.upload = upload;
+    this.sink = sink;
   }
 
   @Override
@@ -42,6 +52,11 @@ public class FileUploadImpl implements FileUpload {
     return uploadedFileName;
   }
 
+  @Override
+  public WriteStream<Buffer> sink() {
+    return sink;
+  }
+
   @Override
   public String fileName() {
     return upload.filename();
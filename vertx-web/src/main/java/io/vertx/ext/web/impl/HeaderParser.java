@@ -16,6 +16,8 @@ import java.util.function.Function;
 public class HeaderParser {
   private static final Logger log = LoggerFactory.getLogger(HeaderParser.class);
 
+  private static final int MAX_INSERTION_SORT_SIZE = 32;
+
   private static final Comparator<ParsedHeaderValue> HEADER_SORTER =
     (ParsedHeaderValue left, ParsedHeaderValue right) -> right.weightedOrder() - left.weightedOrder();
 
@@ -27,17 +29,56 @@ public class HeaderParser {
    * @return The list of (unparsed) parsable header value
    */
   public static <T extends ParsedHeaderValue> List<T> convertToParsedHeaderValues(String unparsedHeaderValue, Function<String, T> objectCreator) {
-    return split(unparsedHeaderValue, ',', objectCreator);
+    if (unparsedHeaderValue == null || unparsedHeaderValue.length() == 0) {
+      return Collections.emptyList();
+    }
+    return new HeaderValueList<>(unparsedHeaderValue, ',', objectCreator);
   }
 
   /**
-   * In-place sorting of the headers list
+   * In-place sorting of the headers list, the weighted order of each header is read once
    *
    * @param headers
    * @return The same object as inserted
    */
+  @SuppressWarnings("unchecked")
   public static <T extends ParsedHeaderValue> List<T> sort(List<T> headers) {
-    headers.sort(HEADER_SORTER);
+    final int size = headers.size();
+    if (size < 2) {
+      return headers;
+    }
+    if (size > MAX_INSERTION_SORT_SIZE) {
+      headers.sort(HEADER_SORTER);
+      return headers;
+    }
+
+    final Object[] values = headers.toArray();
+    final int[] orders = new int[size];
+    for (int i = 0; i < size; i++) {
+      orders[i] = ((T) values[i]).weightedOrder();
+    }
+    // stable insertion sort by descending order, headers are short lists
+    boolean sorted = true;
+    for (int i = 1; i < size; i++) {
+      final Object value = values[i];
+      final int order = orders[i];
+      int j = i - 1;
+      while (j >= 0 && orders[j] < order) {
+        values[j + 1] = values[j];
+        orders[j + 1] = orders[j];
+        j--;
+        sorted = false;
+      }
+      values[j + 1] = value;
+      orders[j + 1] = order;
+    }
+    if (!sorted) {
+      final ListIterator<T> it = headers.listIterator();
+      for (Object value : values) {
+        it.next();
+        it.set((T) value);
+      }
+    }
     return headers;
   }
 
@@ -59,32 +100,59 @@ public class HeaderParser {
       // the whole value
       valueCallback.accept(headerContent.substring(0, paramIndex));
 
-      if (paramIndex < headerContent.length()) {
-
-        split(headerContent.substring(paramIndex + 1), ';', part -> {
-          int idx = part.indexOf('=');
-          if (idx != -1) {
-            final String key = part.substring(0, idx);
-            final String val = part.substring(idx + 1);
-
-            if ("q".equalsIgnoreCase(key)) {
-              try {
-                weightCallback.accept(Float.parseFloat(val));
-              } catch (NumberFormatException e) {
-                if (log.isTraceEnabled())
-                log.trace("Found a \"q\" parameter with value \""+val+"\" that was unparsable");
-              }
+      split(headerContent, paramIndex + 1, ';', (start, end) -> {
+        int idx = headerContent.indexOf('=', start);
+        if (idx != -1 && idx < end) {
+          if (idx - start == 1 && (headerContent.charAt(start) == 'q' || headerContent.charAt(start) == 'Q')) {
+            float weight = parseWeight(headerContent, idx + 1, end);
+            if (!Float.isNaN(weight)) {
+              weightCallback.accept(weight);
             } else {
-              parameterCallback.accept(key, unquote(val));
+              if (log.isTraceEnabled())
+              log.trace("Found a \"q\" parameter with value \""+headerContent.substring(idx + 1, end)+"\" that was unparsable");
             }
           } else {
-            // no value associated with this key
-            parameterCallback.accept(part, null);
+            parameterCallback.accept(headerContent.substring(start, idx), unquote(headerContent.substring(idx + 1, end)));
           }
+        } else {
+          // no value associated with this key
+          parameterCallback.accept(headerContent.substring(start, end), null);
+        }
+      });
+    }
+  }
 
-          return null;
-        });
+  /**
+   * Parses a {@code q} value without creating a string for the usual {@code 0.x} and {@code 1} forms.
+   *
+   * @return the weight or {@code NaN} when the value cannot be parsed
+   */
+  static float parseWeight(String header, int start, int end) {
+    if (start == end) {
+      return Float.NaN;
+    }
+    final char first = header.charAt(start);
+    if ((first == '0' || first == '1') && (end - start == 1 || (header.charAt(start + 1) == '.' && end - start <= 5))) {
+      int thousandths = 0;
+      int scale = 100;
+      for (int i = start + 2; i < end; i++) {
+        final char ch = header.charAt(i);
+        if (ch < '0' || ch > '9') {
+          return parseWeightSlow(header, start, end);
+        }
+        thousandths += (ch - '0') * scale;
+        scale /= 10;
       }
+      return ((first - '0') * 1000 + thousandths) / 1000f;
+    }
+    return parseWeightSlow(header, start, end);
+  }
+
+  private static float parseWeightSlow(String header, int start, int end) {
+    try {
+      return Float.parseFloat(header.substring(start, end));
+    } catch (NumberFormatException e) {
+      return Float.NaN;
     }
   }
 
@@ -116,7 +184,7 @@ public class HeaderParser {
       return Collections.emptyList();
     }
 
-    final List<String> parts = new LinkedList<>();
+    final List<String> parts = new ArrayList<>(3);
 
     // state machine
     int start = 0;
@@ -172,19 +240,24 @@ public class HeaderParser {
     return parts;
   }
 
-  private static <T> List<T> split(String header, char split, Function<String, T> factory) {
-    if (header == null || header.length() == 0) {
-      return Collections.emptyList();
-    }
-
-    final List<T> parts = new LinkedList<>();
+  /**
+   * Bounds of a part of a header.
+   */
+  @FunctionalInterface
+  interface PartConsumer {
+    void accept(int start, int end);
+  }
 
+  /**
+   * Splits the header from the given index, the bounds of each trimmed and non empty part are given to the consumer.
+   */
+  static void split(String header, int from, char split, PartConsumer consumer) {
     // state machine
     boolean quote = false;
-    int start = 0;
+    int start = from;
     char last = 0;
 
-    for (int i = 0; i < header.length(); i++) {
+    for (int i = from; i < header.length(); i++) {
       char ch = header.charAt(i);
       // trim initial white space
       if (start == i && ch == ' ') {
@@ -210,7 +283,7 @@ public class HeaderParser {
         }
         // ignore empty
         if (end - start > 0) {
-          parts.add(factory.apply(header.substring(start, end)));
+          consumer.accept(start, end);
         }
         start = i + 1;
       }
@@ -229,11 +302,9 @@ public class HeaderParser {
       }
       // ignore empty
       if (end - start > 0) {
-        parts.add(factory.apply(header.substring(start, end)));
+        consumer.accept(start, end);
       }
     }
-
-    return parts;
   }
 
   private static String unquote(String value) {
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * The values of a header, split once into the bounds of each value in the raw header. A value object is only created
+ * when the value is read.
+ * <p>
+ * This class is not thread-safe
+ */
+final class HeaderValueList<T> extends AbstractList<T> implements RandomAccess {
+
+  private final String header;
+  private final Function<String, T> factory;
+
+  // the start and end index of each value
+  private int[] bounds = new int[8];
+  private Object[] values;
+  private int size;
+
+  HeaderValueList(String header, char split, Function<String, T> factory) {
+    this.header = header;
+    this.factory = factory;
+    HeaderParser.split(header, 0, split, this::add);
+    values = new Object[size];
+  }
+
+  private void add(int start, int end) {
+    if (bounds.length == size * 2) {
+      bounds = Arrays.copyOf(bounds, bounds.length * 2);
+    }
+    bounds[size * 2] = start;
+    bounds[size * 2 + 1] = end;
+    size++;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    Object value = values[index];
+    if (value == null) {
+      value = factory.apply(header.substring(bounds[index * 2], bounds[index * 2 + 1]));
+      values[index] = value;
+    }
+    return (T) value;
+  }
+
+  @Override
+  public T set(int index, T element) {
+    final T previous = get(index);
+    values[index] = element;
+    return previous;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+}
@@ -14,7 +14,7 @@ import javax.net.ssl.SSLPeerUnverifiedException;
 import javax.security.cert.X509Certificate;
 import java.util.Map;
 
-class HttpServerRequestWrapper implements HttpServerRequest {
+public class HttpServerRequestWrapper implements HttpServerRequest {
 
   private final HttpServerRequest delegate;
   private final ForwardedParser forwardedParser;
@@ -28,13 +28,41 @@ class HttpServerRequestWrapper implements HttpServerRequest {
   private String uri;
   private String absoluteURI;
 
+  // the path params not merged yet into the params
+  private PathParams pathParams;
+  // the form was decoded from the body by a body handler
+  private boolean formDecoded;
+  // the form attributes not merged yet into the params
+  private boolean mergeFormAttributes;
+
   HttpServerRequestWrapper(HttpServerRequest request, boolean allowForward) {
     delegate = request;
     forwardedParser = new ForwardedParser(delegate, allowForward);
   }
 
+  void pathParams(PathParams pathParams) {
+    this.pathParams = pathParams;
+  }
+
+  /**
+   * Signal the form attributes of the request were decoded from the body, the request then expects a form like
+   * when the server decodes it.
+   */
+  public void formDecoded() {
+    formDecoded = true;
+  }
+
+  /**
+   * Merge the form attributes into the params when the params are next read, instead of copying them now.
+   */
+  public void mergeFormAttributes() {
+    mergeFormAttributes = true;
+  }
+
   void changeTo(HttpMethod method, String uri) {
     modified = true;
+    // the params are cleared on reroute
+    mergeFormAttributes = false;
     this.method = method;
     this.uri = uri;
     // lazy initialization
@@ -178,12 +206,21 @@ class HttpServerRequestWrapper implements HttpServerRequest {
 
   @Override
   public MultiMap params() {
-    return delegate.params();
+    final MultiMap params = delegate.params();
+    // the path params were matched before the body was read, they precede the form attributes
+    if (pathParams != null) {
+      pathParams.mergeInto(params);
+    }
+    if (mergeFormAttributes) {
+      mergeFormAttributes = false;
+      params.addAll(delegate.formAttributes());
+    }
+    return params;
   }
 
   @Override
   public String getParam(String s) {
-    return delegate.getParam(s);
+    return params().get(s);
   }
 
   @Override
@@ -265,7 +302,7 @@ class HttpServerRequestWrapper implements HttpServerRequest {
 
   @Override
   public boolean isExpectMultipart() {
-    return delegate.isExpectMultipart();
+    return formDecoded || delegate.isExpectMultipart();
   }
 
   @Override
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.vertx.ext.web.MIMEHeader;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The compiled consumed or produced types of a route.
+ * <p>
+ * The types are indexed by {@code type/subtype}, a concrete request type is only tried against the route types with
+ * the same {@code type/subtype} and the route wildcard types. The candidates keep the iteration order of the route
+ * types, so the selected type is the one {@link MIMEHeader#findMatchedBy} selects.
+ * <p>
+ * The negotiation results are remembered by raw header value. When the results are full they are cleared, so the hot
+ * values are quickly remembered again. Long values are negotiated but never remembered.
+ * <p>
+ * This class is thread-safe
+ */
+final class MIMENegotiationTable {
+
+  /**
+   * Returned by {@link #negotiate(String)} when no route type is accepted.
+   */
+  static final MIMEHeader NOT_ACCEPTABLE = new ParsableMIMEValue("*/*").forceParse();
+
+  static final int MAX_SIZE = 64;
+
+  private final MIMEHeader[] all;
+  private final MIMEHeader[] wildcards;
+  private final Map<String, MIMEHeader[]> byType = new HashMap<>();
+
+  private final ConcurrentHashMap<String, Boolean> consumed = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, MIMEHeader> accepted = new ConcurrentHashMap<>();
+
+  MIMENegotiationTable(Set<MIMEHeader> types) {
+    all = types.toArray(new MIMEHeader[0]);
+
+    final List<MIMEHeader> wildcards = new ArrayList<>();
+    for (MIMEHeader type : all) {
+      if (isWildcard(type)) {
+        wildcards.add(type);
+      }
+    }
+    this.wildcards = wildcards.toArray(new MIMEHeader[0]);
+
+    for (MIMEHeader type : all) {
+      final String key = key(type);
+      if (!isWildcard(type) && !byType.containsKey(key)) {
+        final List<MIMEHeader> candidates = new ArrayList<>();
+        for (MIMEHeader candidate : all) {
+          if (isWildcard(candidate) || key.equals(key(candidate))) {
+            candidates.add(candidate);
+          }
+        }
+        byType.put(key, candidates.toArray(new MIMEHeader[0]));
+      }
+    }
+  }
+
+  /**
+   * Find the first route type matched by the given value.
+   *
+   * @param value the request value
+   * @return the matched route type or {@code null}
+   */
+  MIMEHeader findMatchedBy(MIMEHeader value) {
+    // request values are parsed lazily
+    ((ParsableHeaderValue) value).forceParse();
+    final MIMEHeader[] candidates;
+    if (isWildcard(value)) {
+      candidates = all;
+    } else {
+      candidates = byType.getOrDefault(key(value), wildcards);
+    }
+    for (MIMEHeader candidate : candidates) {
+      if (((ParsableHeaderValue) value).isMatchedBy(candidate)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Check whether the route consumes the given content type.
+   *
+   * @param contentType the request content type
+   * @return {@code true} when a route type is matched by the content type
+   */
+  boolean consumes(MIMEHeader contentType) {
+    final String raw = contentType.rawValue();
+    Boolean result = consumed.get(raw);
+    if (result == null) {
+      result = findMatchedBy(contentType) != null;
+      if (raw.length() <= ParsedHeaderCache.MAX_VALUE_LENGTH) {
+        if (consumed.size() >= MAX_SIZE) {
+          consumed.clear();
+        }
+        consumed.put(raw, result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Select the type to produce for the given {@code Accept} header.
+   *
+   * @param accept the raw {@code Accept} header value, can be {@code null}
+   * @return the selected type, {@code null} when the header has no accepted type, or {@link #NOT_ACCEPTABLE}
+   */
+  MIMEHeader negotiate(String accept) {
+    if (accept == null || accept.isEmpty()) {
+      return null;
+    }
+    MIMEHeader result = accepted.get(accept);
+    if (result == null) {
+      result = select(ParsableHeaderValuesContainer.ACCEPT.get(accept));
+      if (result != null && accept.length() <= ParsedHeaderCache.MAX_VALUE_LENGTH) {
+        if (accepted.size() >= MAX_SIZE) {
+          accepted.clear();
+        }
+        accepted.put(accept, result);
+      }
+    }
+    return result;
+  }
+
+  private MIMEHeader select(List<? extends MIMEHeader> acceptableTypes) {
+    if (acceptableTypes.isEmpty()) {
+      return null;
+    }
+    for (MIMEHeader acceptableType : acceptableTypes) {
+      final MIMEHeader acceptedType = findMatchedBy(acceptableType);
+      if (acceptedType != null) {
+        return isWildcard(acceptedType) ? acceptableType : acceptedType;
+      }
+    }
+    return NOT_ACCEPTABLE;
+  }
+
+  int size() {
+    return consumed.size() + accepted.size();
+  }
+
+  private static boolean isWildcard(MIMEHeader type) {
+    return "*".equals(type.component()) || "*".equals(type.subComponent());
+  }
+
+  private static String key(MIMEHeader type) {
+    return type.component() + '/' + type.subComponent();
+  }
+}
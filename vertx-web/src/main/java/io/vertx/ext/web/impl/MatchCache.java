@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.vertx.core.http.HttpMethod;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the match results of the routes of a {@link RouteIndex} for the requests already seen. The results are
+ * kept by request method, path, host and mount point, as they are the only request data the path, method and virtual
+ * host checks depend on. Content negotiation is not cached.
+ * <p>
+ * The cache belongs to a router state, so it is dropped with the state when the routes change. When the cache is
+ * full it is cleared, so the hot requests are quickly cached again.
+ * <p>
+ * This class is thread-safe
+ */
+final class MatchCache {
+
+  private final int maxSize;
+  private final int routes;
+  private final ConcurrentHashMap<Key, RouteMatch[]> entries = new ConcurrentHashMap<>();
+
+  MatchCache(int maxSize, int routes) {
+    this.maxSize = maxSize;
+    this.routes = routes;
+  }
+
+  /**
+   * Get the match results of the request of the given context, the results are filled while the routes are tried.
+   *
+   * @return the results by route index
+   */
+  RouteMatch[] get(RoutingContextImplBase context, HttpMethod method) {
+    final Key key = new Key(method, context.request().path(), context.request().host(), context.mountPoint());
+    RouteMatch[] matches = entries.get(key);
+    if (matches == null) {
+      if (entries.size() >= maxSize) {
+        entries.clear();
+      }
+      matches = new RouteMatch[routes];
+      final RouteMatch[] existing = entries.putIfAbsent(key, matches);
+      if (existing != null) {
+        matches = existing;
+      }
+    }
+    return matches;
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private static final class Key {
+
+    private final HttpMethod method;
+    private final String path;
+    private final String host;
+    private final String mountPoint;
+    private final int hash;
+
+    Key(HttpMethod method, String path, String host, String mountPoint) {
+      this.method = method;
+      this.path = path;
+      this.host = host;
+      this.mountPoint = mountPoint;
+      this.hash = Objects.hash(method, path, host, mountPoint);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) o;
+      return method == other.method &&
+        Objects.equals(path, other.path) &&
+        Objects.equals(host, other.host) &&
+        Objects.equals(mountPoint, other.mountPoint);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
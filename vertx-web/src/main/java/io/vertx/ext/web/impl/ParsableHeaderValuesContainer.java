@@ -1,5 +1,6 @@
 package io.vertx.ext.web.impl;
 
+import io.vertx.core.http.HttpServerRequest;
 import io.vertx.ext.web.LanguageHeader;
 import io.vertx.ext.web.MIMEHeader;
 import io.vertx.ext.web.ParsedHeaderValue;
@@ -10,6 +11,14 @@ import java.util.List;
 
 public class ParsableHeaderValuesContainer implements ParsedHeaderValues {
 
+  static final ParsedHeaderCache<ParsableMIMEValue> ACCEPT = new ParsedHeaderCache<>(ParsableMIMEValue::new);
+  private static final ParsedHeaderCache<ParsableHeaderValue> ACCEPT_CHARSET = new ParsedHeaderCache<>(ParsableHeaderValue::new);
+  private static final ParsedHeaderCache<ParsableHeaderValue> ACCEPT_ENCODING = new ParsedHeaderCache<>(ParsableHeaderValue::new);
+  private static final ParsedHeaderCache<ParsableLanguageValue> ACCEPT_LANGUAGE = new ParsedHeaderCache<>(ParsableLanguageValue::new);
+
+  // when not null, the headers are parsed on first access
+  private HttpServerRequest request;
+
   private List<MIMEHeader> accept;
   private List<ParsedHeaderValue> acceptCharset;
   private List<ParsedHeaderValue> acceptEncoding;
@@ -26,24 +35,54 @@ public class ParsableHeaderValuesContainer implements ParsedHeaderValues {
     this.contentType = contentType;
   }
 
+  /**
+   * Create a container parsing the headers of the request on first access. The {@code Accept*} headers are shared
+   * with the other requests having the same raw values, so the lists are unmodifiable.
+   *
+   * @param request the request
+   */
+  public ParsableHeaderValuesContainer(HttpServerRequest request) {
+    this.request = request;
+  }
+
   @Override
+  @SuppressWarnings("unchecked")
   public List<MIMEHeader> accept() {
+    if (accept == null && request != null) {
+      accept = (List) ACCEPT.get(request.getHeader("Accept"));
+    }
     return accept;
   }
   @Override
+  @SuppressWarnings("unchecked")
   public List<ParsedHeaderValue> acceptCharset() {
+    if (acceptCharset == null && request != null) {
+      acceptCharset = (List) ACCEPT_CHARSET.get(request.getHeader("Accept-Charset"));
+    }
     return acceptCharset;
   }
   @Override
+  @SuppressWarnings("unchecked")
   public List<ParsedHeaderValue> acceptEncoding() {
+    if (acceptEncoding == null && request != null) {
+      acceptEncoding = (List) ACCEPT_ENCODING.get(request.getHeader("Accept-Encoding"));
+    }
     return acceptEncoding;
   }
   @Override
+  @SuppressWarnings("unchecked")
   public List<LanguageHeader> acceptLanguage() {
+    if (acceptLanguage == null && request != null) {
+      acceptLanguage = (List) ACCEPT_LANGUAGE.get(request.getHeader("Accept-Language"));
+    }
     return acceptLanguage;
   }
   @Override
   public ParsableMIMEValue contentType() {
+    if (contentType == null && request != null) {
+      final String value = request.getHeader("Content-Type");
+      contentType = new ParsableMIMEValue(value == null ? "" : value);
+    }
     return contentType;
   }
 
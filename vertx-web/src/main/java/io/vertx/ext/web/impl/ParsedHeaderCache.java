@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Keeps the parsed and sorted values of the content negotiation headers by raw header value. User agents only send a
+ * handful of distinct {@code Accept*} headers, so most requests are served without parsing.
+ * <p>
+ * The cached lists are unmodifiable and their values are fully parsed before they are published, so they can be
+ * shared by all the requests. When the cache is full it is cleared, so the hot values are quickly cached again. Long
+ * values are parsed but never cached.
+ * <p>
+ * This class is thread-safe
+ */
+final class ParsedHeaderCache<T extends ParsableHeaderValue> {
+
+  static final int MAX_SIZE = 256;
+  static final int MAX_VALUE_LENGTH = 512;
+
+  private final Function<String, T> objectCreator;
+  private final ConcurrentHashMap<String, List<T>> entries = new ConcurrentHashMap<>();
+
+  ParsedHeaderCache(Function<String, T> objectCreator) {
+    this.objectCreator = objectCreator;
+  }
+
+  /**
+   * Get the parsed values of a header sorted by weight.
+   *
+   * @param unparsedHeaderValue the raw header value, can be {@code null}
+   * @return the unmodifiable list of the values
+   */
+  List<T> get(String unparsedHeaderValue) {
+    if (unparsedHeaderValue == null || unparsedHeaderValue.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<T> values = entries.get(unparsedHeaderValue);
+    if (values == null) {
+      values = parse(unparsedHeaderValue);
+      if (unparsedHeaderValue.length() <= MAX_VALUE_LENGTH) {
+        if (entries.size() >= MAX_SIZE) {
+          entries.clear();
+        }
+        entries.putIfAbsent(unparsedHeaderValue, values);
+      }
+    }
+    return values;
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private List<T> parse(String unparsedHeaderValue) {
+    final List<T> values = new ArrayList<>(HeaderParser.convertToParsedHeaderValues(unparsedHeaderValue, objectCreator));
+    for (T value : values) {
+      // the values are shared, they must not be lazily parsed by several threads
+      value.forceParse();
+    }
+    return Collections.unmodifiableList(HeaderParser.sort(values));
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.vertx.core.MultiMap;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The path parameters matched during the routing of a request, in match order. A value is kept as a region of the
+ * matched path and is only extracted when read, the parameters are copied to the context path params map and to the
+ * request params when these are first accessed after a match.
+ * <p>
+ * This class is not thread-safe, it is confined to the request event loop.
+ */
+final class PathParams {
+
+  private String[] names = new String[4];
+  // the string holding each value, already decoded
+  private String[] sources = new String[4];
+  // start and end of each value in its source
+  private int[] offsets = new int[8];
+  // the extracted values
+  private String[] values = new String[4];
+  private int size;
+
+  // number of parameters already copied to the context map
+  private int mapped;
+  // number of parameters already copied to the request params
+  private int merged;
+
+  void add(String name, String source, int start, int end) {
+    if (size == names.length) {
+      names = Arrays.copyOf(names, size * 2);
+      sources = Arrays.copyOf(sources, size * 2);
+      offsets = Arrays.copyOf(offsets, size * 4);
+      values = Arrays.copyOf(values, size * 2);
+    }
+    names[size] = name;
+    sources[size] = source;
+    offsets[size * 2] = start;
+    offsets[size * 2 + 1] = end;
+    size++;
+  }
+
+  private String value(int i) {
+    if (values[i] == null) {
+      final String source = sources[i];
+      final int start = offsets[i * 2];
+      final int end = offsets[i * 2 + 1];
+      values[i] = start == 0 && end == source.length() ? source : source.substring(start, end);
+      // the source is no longer needed
+      sources[i] = null;
+    }
+    return values[i];
+  }
+
+  /**
+   * Copy the parameters matched since the last call to the given map, later matches override earlier ones.
+   */
+  void putInto(Map<String, String> map) {
+    for (; mapped < size; mapped++) {
+      map.put(names[mapped], value(mapped));
+    }
+  }
+
+  /**
+   * Copy the parameters matched since the last call to the request params, unless a param with the same name
+   * already exists.
+   */
+  void mergeInto(MultiMap params) {
+    for (; merged < size; merged++) {
+      final String name = names[merged];
+      if (!params.contains(name)) {
+        params.add(name, value(merged));
+      }
+    }
+  }
+}
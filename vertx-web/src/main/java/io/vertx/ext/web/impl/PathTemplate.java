@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A segment based matcher for paths with parameters such as {@code /users/:id/orders/:oid}, equivalent to the regular
+ * expression {@link RouteImpl} generates for the same path. Parameter values are located by offsets in the request
+ * path, no {@link java.util.regex.Matcher} is involved.
+ * <p>
+ * Only paths where a parameter is followed by a {@code /}, the end of the path or the final {@code *} can be
+ * compiled, any other path (e.g. {@code /:from-:to}) needs backtracking and keeps using the regular expression.
+ * <p>
+ * This class is thread-safe
+ */
+final class PathTemplate {
+
+  // regex operators that are not escaped when a path is converted to a regex
+  private static final String REGEX_OPERATORS = "*?[]{}^|\\";
+
+  private final String path;
+  // the literal before each parameter, the last one is the literal after the last parameter
+  private final String[] literals;
+  private final boolean rest;
+
+  private PathTemplate(String path, String[] literals, boolean rest) {
+    this.path = path;
+    this.literals = literals;
+    this.rest = rest;
+  }
+
+  /**
+   * Compile a path with parameters.
+   *
+   * @param path the route path, as given by the user
+   * @return the template or {@code null} if the path cannot be matched without a regular expression
+   */
+  static PathTemplate compile(String path) {
+    final boolean rest = path.charAt(path.length() - 1) == '*';
+    final int end = rest ? path.length() - 1 : path.length();
+
+    final List<String> literals = new ArrayList<>();
+    final StringBuilder literal = new StringBuilder();
+
+    int i = 0;
+    while (i < end) {
+      final char c = path.charAt(i);
+      if (c == ':' && i + 1 < end && isAsciiLetter(path.charAt(i + 1))) {
+        // a parameter name, same as the regex token search
+        i += 2;
+        while (i < end && (isAsciiLetter(path.charAt(i)) || isAsciiDigit(path.charAt(i)) || path.charAt(i) == '_')) {
+          i++;
+        }
+        // the value cannot contain a '/', so it must be followed by one to be found without backtracking
+        if (i < end && path.charAt(i) != '/') {
+          return null;
+        }
+        literals.add(literal.toString());
+        literal.setLength(0);
+      } else {
+        if (REGEX_OPERATORS.indexOf(c) != -1) {
+          return null;
+        }
+        literal.append(c);
+        i++;
+      }
+    }
+    literals.add(literal.toString());
+
+    return new PathTemplate(path, literals.toArray(new String[0]), rest);
+  }
+
+  /**
+   * @return the number of parameters in the template
+   */
+  int params() {
+    return literals.length - 1;
+  }
+
+  /**
+   * Match the whole request path from the given offset.
+   *
+   * @param requestPath the request path
+   * @param offset where matching starts
+   * @return {@code null} if the path does not match, otherwise the start and end offsets of each parameter value,
+   * followed by the start of the rest of the path when the template ends with {@code *}
+   */
+  int[] match(String requestPath, int offset) {
+    final int params = literals.length - 1;
+    final int[] offsets = new int[params * 2 + (rest ? 1 : 0)];
+
+    int pos = offset;
+    for (int i = 0; i < params; i++) {
+      final String literal = literals[i];
+      if (!requestPath.startsWith(literal, pos)) {
+        return null;
+      }
+      pos += literal.length();
+      int end = requestPath.indexOf('/', pos);
+      if (end == -1) {
+        end = requestPath.length();
+      }
+      if (end == pos) {
+        // values cannot be empty
+        return null;
+      }
+      offsets[i * 2] = pos;
+      offsets[i * 2 + 1] = end;
+      pos = end;
+    }
+
+    final String literal = literals[params];
+    if (!requestPath.startsWith(literal, pos)) {
+      return null;
+    }
+    pos += literal.length();
+
+    if (rest) {
+      offsets[params * 2] = pos;
+      return offsets;
+    }
+
+    return pos == requestPath.length() ? offsets : null;
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean isAsciiDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+}
@@ -18,7 +18,9 @@ package io.vertx.ext.web.impl;
 
 import io.vertx.core.Handler;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.BodyOptions;
 import io.vertx.ext.web.Route;
+import io.vertx.ext.web.RouteMetrics;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 
@@ -38,6 +40,9 @@ public class RouteImpl implements Route {
 
   private final RouterImpl router;
   private volatile RouteState state;
+  // created on the first recording, as most routes of a router never record metrics
+  private volatile RouteStats stats;
+  private volatile BodyOptions bodyOptions;
 
   RouteImpl(RouterImpl router, int order) {
     this.router = router;
@@ -72,9 +77,48 @@ public class RouteImpl implements Route {
     return state;
   }
 
+  RouteStats stats() {
+    RouteStats stats = this.stats;
+    if (stats == null) {
+      synchronized (this) {
+        stats = this.stats;
+        if (stats == null) {
+          stats = new RouteStats();
+          this.stats = stats;
+        }
+      }
+    }
+    return stats;
+  }
+
+  @Override
+  public RouteMetrics metrics() {
+    final RouteStats stats = this.stats;
+    final RouteMetrics metrics = stats == null ? new RouteMetrics() : stats.snapshot();
+    return metrics.setPath(state.getPath());
+  }
+
+  @Override
+  public Route setBodyOptions(BodyOptions options) {
+    // copied, the options are read by the event loops
+    bodyOptions = options == null ? null : new BodyOptions(options);
+    return this;
+  }
+
+  @Override
+  public BodyOptions getBodyOptions() {
+    final BodyOptions options = bodyOptions;
+    return options == null ? null : new BodyOptions(options);
+  }
+
+  BodyOptions bodyOptions() {
+    return bodyOptions;
+  }
+
   @Override
   public synchronized Route method(HttpMethod method) {
     state = state.addMethod(method);
+    routeChanged();
     return this;
   }
 
@@ -82,12 +126,14 @@ public class RouteImpl implements Route {
   public Route path(String path) {
     checkPath(path);
     setPath(path);
+    routeChanged();
     return this;
   }
 
   @Override
   public Route pathRegex(String regex) {
     setRegex(regex);
+    routeChanged();
     return this;
   }
 
@@ -110,8 +156,9 @@ public class RouteImpl implements Route {
         Pattern.compile(
           hostnamePattern
             .replaceAll("\\.", "\\\\.")
-            .replaceAll("[*]", "(.*?)"), Pattern.CASE_INSENSITIVE));
-
+            .replaceAll("[*]", "(.*?)"), Pattern.CASE_INSENSITIVE))
+      .setVirtualHost(isHostName(hostnamePattern) ? hostnamePattern.toLowerCase(Locale.ROOT) : null);
+    routeChanged();
     return this;
   }
 
@@ -171,6 +218,7 @@ public class RouteImpl implements Route {
 
     // mark the route as exclusive from now on
     this.state = state.setExclusive(true);
+    routeChanged();
     return this;
   }
 
@@ -199,18 +247,21 @@ public class RouteImpl implements Route {
   @Override
   public synchronized Route disable() {
     state = state.setEnabled(false);
+    routeChanged();
     return this;
   }
 
   @Override
   public synchronized Route enable() {
     state = state.setEnabled(true);
+    routeChanged();
     return this;
   }
 
   @Override
   public synchronized Route useNormalisedPath(boolean useNormalisedPath) {
     state = state.setUseNormalisedPath(useNormalisedPath);
+    routeChanged();
     return this;
   }
 
@@ -267,6 +318,7 @@ public class RouteImpl implements Route {
 
   private synchronized void setRegex(String regex) {
     state = state.setPattern(Pattern.compile(regex));
+    state = state.setTemplate(null);
     state = state.setExactPath(true);
     findNamedGroups(state.getPattern().pattern());
   }
@@ -285,6 +337,8 @@ public class RouteImpl implements Route {
   private static final Pattern RE_TOKEN_SEARCH = Pattern.compile(":([A-Za-z][A-Za-z0-9_]*)");
 
   private synchronized void createPatternRegex(String path) {
+    // when possible params are matched without the regex
+    state = state.setTemplate(PathTemplate.compile(path));
     // escape path from any regex special chars
     path = RE_OPERATORS_NO_STAR.matcher(path).replaceAll("\\\\$1");
     // allow usage of * at the end as per documentation
@@ -327,6 +381,27 @@ public class RouteImpl implements Route {
     return state.getOrder();
   }
 
+  private static boolean isHostName(String hostnamePattern) {
+    if (hostnamePattern.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < hostnamePattern.length(); i++) {
+      final char c = hostnamePattern.charAt(i);
+      // any other char is a wildcard or a regex operator
+      if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '.' || c == '-' || c == '_')) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private synchronized void routeChanged() {
+    if (state.isAdded()) {
+      // the router compiles the state of its routes, so it needs to know about the change
+      router.refresh();
+    }
+  }
+
   private synchronized void checkAdd() {
     if (!state.isAdded()) {
       router.add(this);
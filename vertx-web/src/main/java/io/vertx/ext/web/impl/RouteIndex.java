@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.vertx.core.http.HttpMethod;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The routes of a {@link RouterState} compiled for dispatching. Routes are kept in router order and are referred by
+ * their index. For each HTTP method the enabled routes that can accept it are kept in a bucket, routes without methods
+ * are in all the buckets. When the router uses a route tree, the tree is compiled on the same indexes, and so is the
+ * match cache when the router caches match results.
+ * <p>
+ * Without a route tree, the sub routers mounted on a constant path are kept out of the buckets in a tree of their
+ * mount points, so a request is only matched against the sub routers its path is mounted on.
+ * <p>
+ * This class is thread-safe
+ */
+final class RouteIndex {
+
+  private static final HttpMethod[] METHODS = HttpMethod.values();
+  // a route without methods accepts any method
+  private static final int ANY_METHOD = -1;
+  private static final int[] EMPTY = new int[0];
+  // a route without a virtual host name accepts any host
+  private static final int ANY_HOST = -1;
+  // the host of a request matching none of the virtual host names
+  private static final int UNKNOWN_HOST = -2;
+
+  private final RouteImpl[] routes;
+  // bitmask of the methods accepted by each route
+  private final int[] methods;
+  // the id of the virtual host name of each route
+  private final int[] hosts;
+  // the ids of the virtual host names of the routes, null when no route has a virtual host name
+  private final Map<String, Integer> hostIds;
+  // the enabled routes
+  private final int[] all;
+  // the enabled routes accepting a method, by method ordinal, the mounted sub routers are not in the buckets
+  private final int[][] buckets;
+  private final RouteTree tree;
+  // the mount points of the sub routers, when there is no route tree
+  private final RouteTree mounts;
+  private final MatchCache cache;
+
+  RouteIndex(Collection<RouteImpl> routes, boolean routeTree, int matchCacheSize) {
+    this.routes = routes.toArray(new RouteImpl[0]);
+    this.methods = new int[this.routes.length];
+    this.hosts = new int[this.routes.length];
+    final Map<String, Integer> hostIds = new HashMap<>();
+
+    int[] all = new int[this.routes.length];
+    int allLength = 0;
+    int[] mounted = new int[this.routes.length];
+    int mountedLength = 0;
+    final boolean[] isMounted = new boolean[this.routes.length];
+
+    for (int i = 0; i < this.routes.length; i++) {
+      // state is locked at this moment
+      final RouteState state = this.routes[i].state();
+      methods[i] = mask(state.getMethods());
+      // wildcard virtual hosts are left to the route, as routes without virtual host
+      final String virtualHost = state.getVirtualHost();
+      if (virtualHost == null) {
+        hosts[i] = ANY_HOST;
+      } else {
+        hosts[i] = hostIds.computeIfAbsent(virtualHost, k -> hostIds.size());
+      }
+      // a disabled route never matches, enabling it replaces the router state
+      if (state.isEnabled()) {
+        all[allLength++] = i;
+        // sub routers mounted on a constant prefix are looked up by their mount point
+        if (!routeTree && state.isExclusive() && RouteTree.key(state) != null) {
+          mounted[mountedLength++] = i;
+          isMounted[i] = true;
+        }
+      }
+    }
+    this.all = Arrays.copyOf(all, allLength);
+    this.hostIds = hostIds.isEmpty() ? null : hostIds;
+
+    buckets = new int[METHODS.length][];
+    for (HttpMethod method : METHODS) {
+      final int bit = 1 << method.ordinal();
+      int[] bucket = new int[allLength];
+      int bucketLength = 0;
+      for (int i : this.all) {
+        if ((methods[i] & bit) != 0 && !isMounted[i]) {
+          bucket[bucketLength++] = i;
+        }
+      }
+      buckets[method.ordinal()] = Arrays.copyOf(bucket, bucketLength);
+    }
+
+    tree = routeTree ? new RouteTree(this.routes, this.all) : null;
+    mounts = mountedLength > 0 ? new RouteTree(this.routes, Arrays.copyOf(mounted, mountedLength)) : null;
+    cache = matchCacheSize > 0 ? new MatchCache(matchCacheSize, this.routes.length) : null;
+  }
+
+  RouteImpl route(int index) {
+    return routes[index];
+  }
+
+  /**
+   * Select the routes that can match the request of the given context, in router order. The selection can contain
+   * routes not accepting the method, these must be skipped with {@link #accepts(int, HttpMethod)}.
+   */
+  int[] candidates(RoutingContextImplBase context, HttpMethod method) {
+    if (tree == null) {
+      return buckets[method.ordinal()];
+    }
+    return tree.lookup(context);
+  }
+
+  /**
+   * Select the mounted sub routers that can match the request of the given context, in router order. These routes
+   * are not part of the {@link #candidates(RoutingContextImplBase, HttpMethod)} and must be tried in order with them.
+   */
+  int[] mounts(RoutingContextImplBase context) {
+    if (mounts == null) {
+      return EMPTY;
+    }
+    return mounts.lookup(context);
+  }
+
+  /**
+   * Find the first route after the given index that was skipped because it does not accept the request method or
+   * host. Such a route can still fail the match of the request, e.g. to tell a {@code 405} from a {@code 404}.
+   *
+   * @param candidates the routes selected by {@link #candidates(RoutingContextImplBase, HttpMethod)}
+   * @param host the host id of the request, see {@link #host(String)}
+   * @return the index of the route or {@code -1}
+   */
+  int nextSkipped(int[] candidates, HttpMethod method, int host, int after) {
+    // without a tree, the method buckets do not hold all the routes
+    for (int i : tree == null ? all : candidates) {
+      if (i > after && (!accepts(i, method) || !acceptsHost(i, host))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Find the virtual host name of the routes the given request host matches, the same way
+   * {@link RouteState#virtualHostMatches(String)} does.
+   *
+   * @param host the request host, can include a port
+   * @return the id of the host name
+   */
+  int host(String host) {
+    if (hostIds == null || host == null) {
+      return UNKNOWN_HOST;
+    }
+    int start = 0;
+    while (start <= host.length()) {
+      int end = host.indexOf(':', start);
+      if (end == -1) {
+        end = host.length();
+      }
+      final Integer id = hostIds.get(host.substring(start, end).toLowerCase(Locale.ROOT));
+      if (id != null) {
+        return id;
+      }
+      start = end + 1;
+    }
+    return UNKNOWN_HOST;
+  }
+
+  boolean acceptsHost(int index, int host) {
+    return hosts[index] == ANY_HOST || hosts[index] == host;
+  }
+
+  /**
+   * Get the cached match results for the request of the given context.
+   *
+   * @return the results by route index or {@code null} when the router does not cache them
+   */
+  RouteMatch[] matches(RoutingContextImplBase context, HttpMethod method) {
+    if (cache == null) {
+      return null;
+    }
+    return cache.get(context, method);
+  }
+
+  boolean accepts(int index, HttpMethod method) {
+    return (methods[index] & (1 << method.ordinal())) != 0;
+  }
+
+  private static int mask(Set<HttpMethod> methods) {
+    if (methods == null || methods.isEmpty()) {
+      return ANY_METHOD;
+    }
+    int mask = 0;
+    for (HttpMethod method : methods) {
+      mask |= 1 << method.ordinal();
+    }
+    return mask;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.Arrays;
+
+/**
+ * The outcome of the path, method and virtual host checks of a route for a request, as kept by the {@link MatchCache}.
+ * The path params and the rest of the path found by the match are recorded so they can be replayed on another
+ * context with the same request.
+ * <p>
+ * This class is immutable
+ */
+final class RouteMatch {
+
+  private static final String[] NO_NAMES = new String[0];
+  private static final int[] NO_OFFSETS = new int[0];
+
+  private final int status;
+  private final boolean virtualHost;
+  private final boolean setsRest;
+  private final int matchRest;
+  private final boolean matchNormalized;
+  private final String[] names;
+  // the source of each value, null for a param that did not participate in the match
+  private final String[] sources;
+  private final int[] offsets;
+
+  private RouteMatch(int status, boolean virtualHost, boolean setsRest, int matchRest, boolean matchNormalized,
+                     String[] names, String[] sources, int[] offsets) {
+    this.status = status;
+    this.virtualHost = virtualHost;
+    this.setsRest = setsRest;
+    this.matchRest = matchRest;
+    this.matchNormalized = matchNormalized;
+    this.names = names;
+    this.sources = sources;
+    this.offsets = offsets;
+  }
+
+  /**
+   * Match the path and the method of the request with the route, recording the outcome. The context is updated as it
+   * would be by {@link RouteState#matches(RoutingContextImplBase, String, boolean)}.
+   */
+  static RouteMatch record(RouteState state, RoutingContextImplBase context, String mountPoint) {
+    final Recorder recorder = new Recorder();
+    final int status;
+    context.recorder = recorder;
+    try {
+      status = state.matchesPath(context, mountPoint);
+    } finally {
+      context.recorder = null;
+    }
+
+    if (status != 0) {
+      return new RouteMatch(status, false, false, -1, false, NO_NAMES, NO_NAMES, NO_OFFSETS);
+    }
+
+    // only the routes with a pattern find the rest of the path
+    final boolean setsRest = state.getPattern() != null;
+    return new RouteMatch(
+      0,
+      state.virtualHostMatches(context.request().host()),
+      setsRest,
+      context.matchRest,
+      context.matchNormalized,
+      Arrays.copyOf(recorder.names, recorder.size),
+      Arrays.copyOf(recorder.sources, recorder.size),
+      Arrays.copyOf(recorder.offsets, recorder.size * 2));
+  }
+
+  /**
+   * Update the context as the recorded match did.
+   */
+  void replay(RoutingContextImplBase context) {
+    if (status != 0) {
+      return;
+    }
+    if (setsRest) {
+      context.matchRest = matchRest;
+      context.matchNormalized = matchNormalized;
+    }
+    for (int i = 0; i < names.length; i++) {
+      context.matchedPathParam(names[i], sources[i], offsets[i * 2], offsets[i * 2 + 1]);
+    }
+  }
+
+  int status() {
+    return status;
+  }
+
+  boolean virtualHost() {
+    return virtualHost;
+  }
+
+  /**
+   * Collects the path params of a match in progress.
+   */
+  static final class Recorder {
+
+    private String[] names = new String[4];
+    private String[] sources = new String[4];
+    private int[] offsets = new int[8];
+    private int size;
+
+    void pathParam(String name, String source, int start, int end) {
+      if (size == names.length) {
+        names = Arrays.copyOf(names, size * 2);
+        sources = Arrays.copyOf(sources, size * 2);
+        offsets = Arrays.copyOf(offsets, size * 4);
+      }
+      names[size] = name;
+      sources[size] = source;
+      offsets[size * 2] = start;
+      offsets[size * 2 + 1] = end;
+      size++;
+    }
+  }
+}
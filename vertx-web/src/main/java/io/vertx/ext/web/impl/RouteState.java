@@ -16,6 +16,7 @@
 package io.vertx.ext.web.impl;
 
 import io.vertx.core.Handler;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.net.impl.URIDecoder;
@@ -44,6 +45,8 @@ final class RouteState {
   private final Set<MIMEHeader> consumes;
   private final boolean emptyBodyPermittedWithConsumes;
   private final Set<MIMEHeader> produces;
+  private final MIMENegotiationTable consumesTable;
+  private final MIMENegotiationTable producesTable;
   private final List<Handler<RoutingContext>> contextHandlers;
   private final List<Handler<RoutingContext>> failureHandlers;
   private final boolean added;
@@ -55,8 +58,11 @@ final class RouteState {
   private final boolean pathEndsWithSlash;
   private final boolean exclusive;
   private final boolean exactPath;
+  private final PathTemplate template;
+  // the lower case virtual host name, when the virtual host pattern has no wildcard
+  private final String virtualHost;
 
-  private RouteState(RouteImpl route, String path, int order, boolean enabled, Set<HttpMethod> methods, Set<MIMEHeader> consumes, boolean emptyBodyPermittedWithConsumes, Set<MIMEHeader> produces, List<Handler<RoutingContext>> contextHandlers, List<Handler<RoutingContext>> failureHandlers, boolean added, Pattern pattern, List<String> groups, boolean useNormalisedPath, Set<String> namedGroupsInRegex, Pattern virtualHostPattern, boolean pathEndsWithSlash, boolean exclusive, boolean exactPath) {
+  private RouteState(RouteImpl route, String path, int order, boolean enabled, Set<HttpMethod> methods, Set<MIMEHeader> consumes, boolean emptyBodyPermittedWithConsumes, Set<MIMEHeader> produces, List<Handler<RoutingContext>> contextHandlers, List<Handler<RoutingContext>> failureHandlers, boolean added, Pattern pattern, List<String> groups, boolean useNormalisedPath, Set<String> namedGroupsInRegex, Pattern virtualHostPattern, boolean pathEndsWithSlash, boolean exclusive, boolean exactPath, PathTemplate template, String virtualHost) {
     this.route = route;
     this.path = path;
     this.order = order;
@@ -65,6 +71,8 @@ final class RouteState {
     this.consumes = consumes;
     this.emptyBodyPermittedWithConsumes = emptyBodyPermittedWithConsumes;
     this.produces = produces;
+    this.consumesTable = isEmpty(consumes) ? null : new MIMENegotiationTable(consumes);
+    this.producesTable = isEmpty(produces) ? null : new MIMENegotiationTable(produces);
     this.contextHandlers = contextHandlers;
     this.failureHandlers = failureHandlers;
     this.added = added;
@@ -76,6 +84,8 @@ final class RouteState {
     this.pathEndsWithSlash = pathEndsWithSlash;
     this.exclusive = exclusive;
     this.exactPath = exactPath;
+    this.template = template;
+    this.virtualHost = virtualHost;
   }
 
   RouteState(RouteImpl route, int order) {
@@ -98,7 +108,9 @@ final class RouteState {
       null,
       false,
       false,
-      false);
+      false,
+      null,
+      null);
   }
 
   public RouteImpl getRoute() {
@@ -133,7 +145,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public int getOrder() {
@@ -160,7 +174,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public boolean isEnabled() {
@@ -187,7 +203,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public Set<HttpMethod> getMethods() {
@@ -214,7 +232,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public RouteState addMethod(HttpMethod method) {
@@ -237,7 +257,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
 
     newState.methods.add(method);
     return newState;
@@ -267,17 +289,22 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   RouteState addConsume(MIMEHeader mime) {
-    RouteState newState = new RouteState(
+    final Set<MIMEHeader> consumes = this.consumes == null ? new HashSet<>() : new HashSet<>(this.consumes);
+    consumes.add(mime);
+
+    return new RouteState(
       this.route,
       this.path,
       this.order,
       this.enabled,
       this.methods,
-      this.consumes == null ? new HashSet<>() : new HashSet<>(this.consumes),
+      consumes,
       this.emptyBodyPermittedWithConsumes,
       this.produces,
       this.contextHandlers,
@@ -290,10 +317,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
-
-    newState.consumes.add(mime);
-    return newState;
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public boolean isEmptyBodyPermittedWithConsumes() {
@@ -320,7 +346,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public Set<MIMEHeader> getProduces() {
@@ -347,11 +375,16 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   RouteState addProduce(MIMEHeader mime) {
-    RouteState newState = new RouteState(
+    final Set<MIMEHeader> produces = this.produces == null ? new HashSet<>() : new HashSet<>(this.produces);
+    produces.add(mime);
+
+    return new RouteState(
       this.route,
       this.path,
       this.order,
@@ -359,7 +392,7 @@ final class RouteState {
       this.methods,
       this.consumes,
       this.emptyBodyPermittedWithConsumes,
-      this.produces == null ? new HashSet<>() : new HashSet<>(this.produces),
+      produces,
       this.contextHandlers,
       this.failureHandlers,
       this.added,
@@ -370,10 +403,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
-
-    newState.produces.add(mime);
-    return newState;
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public List<Handler<RoutingContext>> getContextHandlers() {
@@ -404,7 +436,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   RouteState addContextHandler(Handler<RoutingContext> contextHandler) {
@@ -427,7 +461,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
 
     newState.contextHandlers.add(contextHandler);
     return newState;
@@ -461,7 +497,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   RouteState addFailureHandler(Handler<RoutingContext> failureHandler) {
@@ -484,7 +522,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
 
     newState.failureHandlers.add(failureHandler);
     return newState;
@@ -514,7 +554,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public Pattern getPattern() {
@@ -541,7 +583,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public List<String> getGroups() {
@@ -568,7 +612,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   RouteState addGroup(String group) {
@@ -591,7 +637,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
 
     newState.groups.add(group);
     return newState;
@@ -621,7 +669,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public Set<String> getNamedGroupsInRegex() {
@@ -648,7 +698,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   RouteState addNamedGroupInRegex(String namedGroupInRegex) {
@@ -671,7 +723,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
 
     newState.namedGroupsInRegex.add(namedGroupInRegex);
     return newState;
@@ -701,7 +755,9 @@ final class RouteState {
       virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public boolean isPathEndsWithSlash() {
@@ -728,7 +784,9 @@ final class RouteState {
       this.virtualHostPattern,
       pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public boolean isExclusive() {
@@ -755,7 +813,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.virtualHost);
   }
 
   public boolean isExactPath() {
@@ -782,7 +842,67 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      exactPath);
+      exactPath,
+      this.template,
+      this.virtualHost);
+  }
+
+  public PathTemplate getTemplate() {
+    return template;
+  }
+
+  RouteState setTemplate(PathTemplate template) {
+    return new RouteState(
+      this.route,
+      this.path,
+      this.order,
+      this.enabled,
+      this.methods,
+      this.consumes,
+      this.emptyBodyPermittedWithConsumes,
+      this.produces,
+      this.contextHandlers,
+      this.failureHandlers,
+      this.added,
+      this.pattern,
+      this.groups,
+      this.useNormalisedPath,
+      this.namedGroupsInRegex,
+      this.virtualHostPattern,
+      this.pathEndsWithSlash,
+      this.exclusive,
+      this.exactPath,
+      template,
+      this.virtualHost);
+  }
+
+  public String getVirtualHost() {
+    return virtualHost;
+  }
+
+  RouteState setVirtualHost(String virtualHost) {
+    return new RouteState(
+      this.route,
+      this.path,
+      this.order,
+      this.enabled,
+      this.methods,
+      this.consumes,
+      this.emptyBodyPermittedWithConsumes,
+      this.produces,
+      this.contextHandlers,
+      this.failureHandlers,
+      this.added,
+      this.pattern,
+      this.groups,
+      this.useNormalisedPath,
+      this.namedGroupsInRegex,
+      this.virtualHostPattern,
+      this.pathEndsWithSlash,
+      this.exclusive,
+      this.exactPath,
+      this.template,
+      virtualHost);
   }
 
   private static <T> boolean contains(Collection<T> collection, T value) {
@@ -804,11 +924,99 @@ final class RouteState {
     if (!enabled) {
       return 404;
     }
+    final int pathResult = matchesPath(context, mountPoint);
+    if (pathResult != 0) {
+      return pathResult;
+    }
+    final int contentResult = matchesContent(context);
+    if (contentResult != 0) {
+      return contentResult;
+    }
+    if (!virtualHostMatches(context.request().host())) {
+      return 404;
+    }
+    return 0;
+  }
+
+  /**
+   * Same as {@link #matches(RoutingContextImplBase, String, boolean)}, the outcome of the path, method and virtual host
+   * checks is taken from the given match results when the request was already matched, only the content checks run.
+   *
+   * @param matches the match results of the request, by route index
+   * @param index the index of this route
+   * @return 0 if route matches, otherwise it return the status code
+   */
+  int matches(RoutingContextImplBase context, String mountPoint, boolean failure, RouteMatch[] matches, int index) {
+
+    if (failure && !hasNextFailureHandler(context) || !failure && !hasNextContextHandler(context)) {
+      return 404;
+    }
+    if (!enabled) {
+      return 404;
+    }
+    RouteMatch match = matches[index];
+    if (match == null) {
+      // benign race, a result does not depend on the request computing it
+      match = RouteMatch.record(this, context, mountPoint);
+      matches[index] = match;
+    } else {
+      match.replay(context);
+    }
+    if (match.status() != 0) {
+      return match.status();
+    }
+    final int contentResult = matchesContent(context);
+    if (contentResult != 0) {
+      return contentResult;
+    }
+    if (!match.virtualHost()) {
+      return 404;
+    }
+    return 0;
+  }
+
+  /**
+   * Check the path and the method of the request, on success the path params are added to the context.
+   */
+  int matchesPath(RoutingContextImplBase context, String mountPoint) {
     HttpServerRequest request = context.request();
     if (path != null && pattern == null && !pathMatches(mountPoint, context)) {
       return 404;
     }
-    if (pattern != null) {
+    if (pattern != null && template != null && groups != null && groups.size() == template.params()) {
+      final String path = useNormalisedPath ? context.normalisedPath() : context.request().path();
+      int strip = 0;
+      if (mountPoint != null) {
+        strip = mountPoint.length();
+        // mount point can have significant slash
+        if (mountPoint.charAt(strip - 1)== '/') {
+          strip--;
+        }
+      }
+
+      // Path with params - matched by segments, same as the generated regex
+      final int[] offsets = template.match(path, strip);
+      if (offsets == null) {
+        return 404;
+      }
+
+      if (!isEmpty(methods) && !contains(methods, request.method())) {
+        // If I'm here path or path pattern matches, but the method is wrong
+        return 405;
+      }
+
+      context.matchRest = -1;
+      context.matchNormalized = useNormalisedPath;
+
+      if (!exactPath) {
+        // the rest offset is relative to the mount point as it is for the regex
+        context.matchRest = offsets[offsets.length - 1] - strip;
+      }
+      // decode the path as it could contain escaped chars.
+      for (int i = 0; i < groups.size(); i++) {
+        addPathParam(context, groups.get(i), path, offsets[i * 2], offsets[i * 2 + 1]);
+      }
+    } else if (pattern != null) {
       String path = useNormalisedPath ? context.normalisedPath() : context.request().path();
       if (mountPoint != null) {
         int strip = mountPoint.length();
@@ -887,12 +1095,45 @@ final class RouteState {
         return 405;
       }
     }
+    return 0;
+  }
 
-    if (!isEmpty(consumes)) {
+  /**
+   * Check whether the route would match the request if it was tried next, with the same checks as
+   * {@link #matches(RoutingContextImplBase, String, boolean)}. Nothing is recorded in the context: neither the path
+   * params, the rest of the path nor the acceptable content type.
+   */
+  boolean peek(RoutingContextImplBase context, String mountPoint) {
+    if (!enabled || getContextHandlersLength() == 0) {
+      return false;
+    }
+    final int matchRest = context.matchRest;
+    final boolean matchNormalized = context.matchNormalized;
+    final String acceptableContentType = context.getAcceptableContentType();
+    context.peeking = true;
+    try {
+      return matchesPath(context, mountPoint) == 0 &&
+        matchesContent(context) == 0 &&
+        virtualHostMatches(context.request().host());
+    } catch (IllegalArgumentException e) {
+      // an invalid path param, the request fails when the route is tried
+      return false;
+    } finally {
+      context.peeking = false;
+      context.matchRest = matchRest;
+      context.matchNormalized = matchNormalized;
+      context.setAcceptableContentType(acceptableContentType);
+    }
+  }
+
+  /**
+   * Check the content type and the accepted types of the request.
+   */
+  private int matchesContent(RoutingContextImplBase context) {
+    if (consumesTable != null) {
       // Can this route consume the specified content type
       MIMEHeader contentType = context.parsedHeaders().contentType();
-      MIMEHeader consumal = contentType.findMatchedBy(consumes);
-      if (consumal == null && !(contentType.rawValue().isEmpty() && emptyBodyPermittedWithConsumes)) {
+      if (!consumesTable.consumes(contentType) && !(contentType.rawValue().isEmpty() && emptyBodyPermittedWithConsumes)) {
         if (contentType.rawValue().isEmpty()) {
           return 400;
         } else {
@@ -900,18 +1141,15 @@ final class RouteState {
         }
       }
     }
-    List<MIMEHeader> acceptableTypes = context.parsedHeaders().accept();
-    if (!isEmpty(produces) && !acceptableTypes.isEmpty()) {
-      MIMEHeader selectedAccept = context.parsedHeaders().findBestUserAcceptedIn(acceptableTypes, produces);
+    if (producesTable != null) {
+      MIMEHeader selectedAccept = producesTable.negotiate(context.request().getHeader(HttpHeaders.ACCEPT));
+      if (selectedAccept == MIMENegotiationTable.NOT_ACCEPTABLE) {
+        return 406;
+      }
       if (selectedAccept != null) {
         context.setAcceptableContentType(selectedAccept.rawValue());
-      } else {
-        return 406;
       }
     }
-    if (!virtualHostMatches(context.request().host())) {
-      return 404;
-    }
     return 0;
   }
 
@@ -974,8 +1212,23 @@ final class RouteState {
     }
   }
 
-  private boolean virtualHostMatches(String host) {
+  boolean virtualHostMatches(String host) {
     if (virtualHostPattern == null) return true;
+    if (virtualHost != null) {
+      // same as the pattern, without splitting the host
+      int start = 0;
+      while (start <= host.length()) {
+        int end = host.indexOf(':', start);
+        if (end == -1) {
+          end = host.length();
+        }
+        if (hostNameMatches(host, start, end, virtualHost)) {
+          return true;
+        }
+        start = end + 1;
+      }
+      return false;
+    }
     boolean match = false;
     for (String h : host.split(":")) {
       if (virtualHostPattern.matcher(h).matches()) {
@@ -986,6 +1239,26 @@ final class RouteState {
     return match;
   }
 
+  /**
+   * Compare the {@code [start, end)} region of the host with a lower case host name, ignoring the case of ASCII chars
+   * only as the case insensitive virtual host pattern does.
+   */
+  static boolean hostNameMatches(String host, int start, int end, String name) {
+    if (end - start != name.length()) {
+      return false;
+    }
+    for (int i = 0; i < name.length(); i++) {
+      char c = host.charAt(start + i);
+      if (c >= 'A' && c <= 'Z') {
+        c += 'a' - 'A';
+      }
+      if (c != name.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private static boolean pathMatchesExact(String base, String other, boolean significantSlash) {
     // Ignore trailing slash when matching paths
     int len = other.length();
@@ -1011,13 +1284,26 @@ final class RouteState {
     return other.regionMatches(0, base, 0, len);
   }
 
-  private void addPathParam(RoutingContext context, String name, String value) {
-    HttpServerRequest request = context.request();
-    final String decodedValue = URIDecoder.decodeURIComponent(value, false);
-    if (!request.params().contains(name)) {
-      request.params().add(name, decodedValue);
+  private void addPathParam(RoutingContextImplBase context, String name, String value) {
+    if (value == null) {
+      // a group that did not participate in the match
+      context.matchedPathParam(name, null, 0, 0);
+    } else {
+      addPathParam(context, name, value, 0, value.length());
+    }
+  }
+
+  private void addPathParam(RoutingContextImplBase context, String name, String path, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (path.charAt(i) == '%') {
+        // decode the value now, so invalid escape sequences fail the match
+        final String decodedValue = URIDecoder.decodeURIComponent(path.substring(start, end), false);
+        context.matchedPathParam(name, decodedValue, 0, decodedValue.length());
+        return;
+      }
     }
-    context.pathParams().put(name, decodedValue);
+    // nothing to decode, the value is only extracted if read
+    context.matchedPathParam(name, path, start, end);
   }
 
   boolean hasNextContextHandler(RoutingContextImplBase context) {
@@ -1061,6 +1347,8 @@ final class RouteState {
       ", pathEndsWithSlash=" + pathEndsWithSlash +
       ", exclusive=" + exclusive +
       ", exactPath=" + exactPath +
+      ", template=" + template +
+      ", virtualHost=" + virtualHost +
       '}';
   }
 }
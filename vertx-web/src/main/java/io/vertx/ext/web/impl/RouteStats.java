@@ -0,0 +1,234 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.vertx.ext.web.RouteMetrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the metrics of a route. Routes are matched from any event loop, so the counters are adders and the latencies
+ * are recorded in log-linear histograms striped the same way: a route has a single histogram, allocated on the first
+ * recorded latency, until threads contend on it, then the recording threads are spread over more histograms, up to
+ * the default number of event loops. The snapshots merge the histograms. Each power of two is split in 8 buckets, so a
+ * percentile is approximated to 1/8 of its value, the same way a HdrHistogram with 1 significant digit does.
+ * <p>
+ * This class is thread-safe
+ */
+final class RouteStats {
+
+  // number of buckets per power of two, as a number of bits
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // the latencies are recorded up to about 18 minutes, longer ones are recorded as the max
+  private static final int LATENCY_BITS = 40;
+  static final long MAX_LATENCY = (1L << LATENCY_BITS) - 1;
+  private static final int BUCKETS = (LATENCY_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+  // a power of two, at least the default number of event loops
+  private static final int MAX_STRIPES = Integer.highestOneBit(2 * Runtime.getRuntime().availableProcessors() - 1) << 1;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder notFound = new LongAdder();
+  private final LongAdder methodNotAllowed = new LongAdder();
+  private final LongAdder notAcceptable = new LongAdder();
+  private final LongAdder unsupportedMediaType = new LongAdder();
+
+  // null until the first latency is recorded
+  private volatile Recorder[] recorders;
+
+  void hit() {
+    hits.increment();
+  }
+
+  /**
+   * Record the status of a request no route matched, only the statuses telling why the route was not used are
+   * recorded.
+   */
+  void reject(int status) {
+    switch (status) {
+      case 404:
+        notFound.increment();
+        break;
+      case 405:
+        methodNotAllowed.increment();
+        break;
+      case 406:
+        notAcceptable.increment();
+        break;
+      case 415:
+        unsupportedMediaType.increment();
+        break;
+    }
+  }
+
+  void latency(long nanos) {
+    if (nanos < 0) {
+      // nanoTime is not monotonic on every platform
+      nanos = 0;
+    } else if (nanos > MAX_LATENCY) {
+      nanos = MAX_LATENCY;
+    }
+    Recorder[] recorders = this.recorders;
+    if (recorders == null) {
+      recorders = stripe(null);
+    }
+    // the ids of the event loop threads are consecutive, they are spread evenly over the recorders
+    final Recorder recorder = recorders[(int) Thread.currentThread().getId() & (recorders.length - 1)];
+    if (!recorder.record(nanos) && recorders.length < MAX_STRIPES) {
+      stripe(recorders);
+    }
+  }
+
+  /**
+   * Allocate the first recorder, or double the number of recorders when the given ones are contended.
+   *
+   * @return the current recorders
+   */
+  private synchronized Recorder[] stripe(Recorder[] contended) {
+    Recorder[] recorders = this.recorders;
+    if (recorders == contended) {
+      if (contended == null) {
+        recorders = new Recorder[] { new Recorder() };
+      } else {
+        // keep the recorded latencies
+        recorders = Arrays.copyOf(contended, contended.length * 2);
+        for (int i = contended.length; i < recorders.length; i++) {
+          recorders[i] = new Recorder();
+        }
+      }
+      this.recorders = recorders;
+    }
+    return recorders;
+  }
+
+  /**
+   * Take a snapshot of the metrics, the snapshot is not atomic as the route can be used meanwhile.
+   */
+  RouteMetrics snapshot() {
+    final long[] counts = new long[BUCKETS];
+    long count = 0;
+    long sum = 0;
+    long min = Long.MAX_VALUE;
+    long max = 0;
+    final Recorder[] recorders = this.recorders;
+    if (recorders != null) {
+      for (Recorder recorder : recorders) {
+        for (int i = 0; i < BUCKETS; i++) {
+          final long bucket = recorder.latencies.get(i);
+          counts[i] += bucket;
+          count += bucket;
+        }
+        sum += recorder.sum.get();
+        min = Math.min(min, recorder.min.get());
+        max = Math.max(max, recorder.max.get());
+      }
+    }
+
+    final RouteMetrics metrics = new RouteMetrics()
+      .setHits(hits.sum())
+      .setNotFound(notFound.sum())
+      .setMethodNotAllowed(methodNotAllowed.sum())
+      .setNotAcceptable(notAcceptable.sum())
+      .setUnsupportedMediaType(unsupportedMediaType.sum())
+      .setLatencyCount(count);
+
+    if (count > 0) {
+      metrics
+        .setLatencyMin(min)
+        .setLatencyMax(max)
+        .setLatencyMean(sum / count)
+        .setLatency50(percentile(counts, count, 0.5, max))
+        .setLatency90(percentile(counts, count, 0.9, max))
+        .setLatency99(percentile(counts, count, 0.99, max));
+    }
+    return metrics;
+  }
+
+  /**
+   * A histogram of latencies, recording tells whether another thread updated the same bucket meanwhile, the same way a
+   * {@link LongAdder} detects contention.
+   */
+  private static final class Recorder {
+
+    final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+    final AtomicLong sum = new AtomicLong();
+    final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    final AtomicLong max = new AtomicLong();
+
+    /**
+     * @return {@code false} when the recording contended with another thread
+     */
+    boolean record(long nanos) {
+      final int bucket = bucket(nanos);
+      final long count = latencies.get(bucket);
+      final boolean uncontended = latencies.compareAndSet(bucket, count, count + 1);
+      if (!uncontended) {
+        latencies.incrementAndGet(bucket);
+      }
+      sum.addAndGet(nanos);
+      // the bounds are only written when they change, which is rare once the route is warm
+      long current;
+      while (nanos < (current = min.get())) {
+        if (min.compareAndSet(current, nanos)) {
+          break;
+        }
+      }
+      while (nanos > (current = max.get())) {
+        if (max.compareAndSet(current, nanos)) {
+          break;
+        }
+      }
+      return uncontended;
+    }
+  }
+
+  private static long percentile(long[] counts, long count, double percentile, long max) {
+    final long rank = Math.max(1, (long) Math.ceil(count * percentile));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(highest(i), max);
+      }
+    }
+    return max;
+  }
+
+  static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int exponent = 63 - Long.numberOfLeadingZeros(value);
+    final int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * @return the highest value of a bucket
+   */
+  static long highest(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    final long sub = bucket % SUB_BUCKETS;
+    final long width = 1L << (exponent - SUB_BUCKET_BITS);
+    return ((SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.Arrays;
+
+/**
+ * A radix tree compiled from the routes of a {@link RouterState}, or from some of them. Routes are keyed on the literal prefix of their
+ * path (the characters before the first parameter slot or wildcard) so for a given request path only the routes whose
+ * prefix is a prefix of the request path are selected.
+ * <p>
+ * The tree is only a filter: the selected routes are returned in the router order and are still checked by
+ * {@link RouteState#matches(RoutingContextImplBase, String, boolean)}, so the routing outcome is the same as iterating
+ * all routes. Routes that cannot be keyed (regular expressions, no path, not normalised paths) are always selected.
+ * <p>
+ * This class is thread-safe
+ */
+final class RouteTree {
+
+  private static final int[] EMPTY = new int[0];
+  private static final Node[] NO_CHILDREN = new Node[0];
+
+  // all the selected routes, used when the request path cannot be looked up
+  private final int[] all;
+  // routes that cannot be keyed and are always candidates
+  private final int[] unindexed;
+  private final Node root = new Node("");
+
+  /**
+   * Compile a tree of the given routes.
+   *
+   * @param routes the routes of the router
+   * @param selected the indexes of the routes to add to the tree, in router order
+   */
+  RouteTree(RouteImpl[] routes, int[] selected) {
+    int[] unindexed = new int[selected.length];
+    int unindexedLength = 0;
+
+    for (int i : selected) {
+      // state is locked at this moment
+      final String key = key(routes[i].state());
+      if (key == null) {
+        unindexed[unindexedLength++] = i;
+      } else {
+        root.insert(key, 0, i);
+      }
+    }
+
+    this.all = selected;
+    this.unindexed = Arrays.copyOf(unindexed, unindexedLength);
+  }
+
+  /**
+   * Select the routes that can possibly match the request of the given context.
+   *
+   * @return the indexes of the candidate routes in router order
+   */
+  int[] lookup(RoutingContextImplBase context) {
+    if (root.children.length == 0) {
+      // no route could be keyed
+      return unindexed;
+    }
+
+    final String path;
+    try {
+      // only routes using the normalised path are keyed
+      path = context.normalisedPath();
+    } catch (IllegalArgumentException e) {
+      // the path cannot be decoded, the routes will fail in the same way while matching
+      return all;
+    }
+    final String mountPoint = context.mountPoint();
+
+    int offset = 0;
+    if (mountPoint != null) {
+      int strip = mountPoint.length();
+      // mount point can have significant slash
+      if (mountPoint.charAt(strip - 1) == '/') {
+        strip--;
+      }
+      if (!path.regionMatches(0, mountPoint, 0, strip)) {
+        // let the routes decide
+        return all;
+      }
+      offset = strip;
+    }
+
+    return lookup(path, offset);
+  }
+
+  int[] lookup(String path, int offset) {
+    int[][] found = null;
+    int foundLength = 0;
+    int total = unindexed.length;
+
+    Node node = root;
+    int pos = offset;
+    while (node != null) {
+      if (node.routes.length > 0) {
+        if (found == null) {
+          found = new int[4][];
+        } else if (foundLength == found.length) {
+          found = Arrays.copyOf(found, foundLength * 2);
+        }
+        found[foundLength++] = node.routes;
+        total += node.routes.length;
+      }
+      node = node.next(path, pos);
+      if (node != null) {
+        pos += node.label.length();
+      }
+    }
+
+    if (foundLength == 0) {
+      return unindexed;
+    }
+    if (foundLength == 1 && unindexed.length == 0) {
+      // a single node, already in router order
+      return found[0];
+    }
+
+    final int[] candidates = Arrays.copyOf(unindexed, total);
+    int idx = unindexed.length;
+    for (int i = 0; i < foundLength; i++) {
+      System.arraycopy(found[i], 0, candidates, idx, found[i].length);
+      idx += found[i].length;
+    }
+    // restore the router order
+    Arrays.sort(candidates);
+    return candidates;
+  }
+
+  /**
+   * Compute the literal prefix a request path must start with in order to be matched by the route.
+   *
+   * @return the prefix or {@code null} if the route cannot be keyed
+   */
+  static String key(RouteState state) {
+    final String path = state.getPath();
+    // regex routes or routes without path
+    if (path == null || !state.isUseNormalisedPath()) {
+      return null;
+    }
+
+    int end = path.length();
+    if (state.getPattern() != null) {
+      // parameter paths are compiled to a regex, only the chars before the first token or regex operator are literal
+      for (int i = 0; i < path.length(); i++) {
+        if (LITERAL_STOP.indexOf(path.charAt(i)) != -1) {
+          end = i;
+          break;
+        }
+      }
+    }
+
+    // the root path matches differently when mounted, so it is always a candidate
+    if (end <= 1) {
+      return null;
+    }
+
+    return path.substring(0, end);
+  }
+
+  // chars that are not escaped when a path with parameters is converted to a regex
+  private static final String LITERAL_STOP = ":*?[]{}^|\\";
+
+  private static final class Node {
+
+    private String label;
+    private Node[] children = NO_CHILDREN;
+    private int[] routes = EMPTY;
+
+    Node(String label) {
+      this.label = label;
+    }
+
+    Node next(String path, int pos) {
+      if (pos >= path.length()) {
+        return null;
+      }
+      final char c = path.charAt(pos);
+      for (Node child : children) {
+        if (child.label.charAt(0) == c) {
+          return path.regionMatches(pos, child.label, 0, child.label.length()) ? child : null;
+        }
+      }
+      return null;
+    }
+
+    void insert(String key, int pos, int route) {
+      if (pos == key.length()) {
+        routes = Arrays.copyOf(routes, routes.length + 1);
+        routes[routes.length - 1] = route;
+        return;
+      }
+
+      final char c = key.charAt(pos);
+      for (Node child : children) {
+        if (child.label.charAt(0) == c) {
+          // length of the common prefix
+          int common = 1;
+          final int max = Math.min(child.label.length(), key.length() - pos);
+          while (common < max && child.label.charAt(common) == key.charAt(pos + common)) {
+            common++;
+          }
+          if (common < child.label.length()) {
+            child.split(common);
+          }
+          child.insert(key, pos + common, route);
+          return;
+        }
+      }
+
+      final Node child = new Node(key.substring(pos));
+      children = Arrays.copyOf(children, children.length + 1);
+      children[children.length - 1] = child;
+      child.insert(key, key.length(), route);
+    }
+
+    private void split(int at) {
+      final Node tail = new Node(label.substring(at));
+      tail.children = children;
+      tail.routes = routes;
+
+      label = label.substring(0, at);
+      children = new Node[] { tail };
+      routes = EMPTY;
+    }
+  }
+}
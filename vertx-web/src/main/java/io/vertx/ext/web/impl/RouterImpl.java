@@ -52,7 +52,7 @@ public class RouterImpl implements Router {
     if (log.isTraceEnabled()) {
       log.trace("Router: " + System.identityHashCode(this) + " accepting request " + request.method() + " " + request.absoluteURI());
     }
-    new RoutingContextImpl(null, this, request, state.getRoutes(), allowForward).next();
+    new RoutingContextImpl(null, this, request, state, allowForward).next();
   }
 
   @Override
@@ -233,12 +233,12 @@ public class RouterImpl implements Router {
 
   @Override
   public void handleContext(RoutingContext ctx) {
-    new RoutingContextWrapper(getAndCheckRoutePath(ctx), state.getRoutes(), ctx).next();
+    new RoutingContextWrapper(getAndCheckRoutePath(ctx), state, ctx).next();
   }
 
   @Override
   public void handleFailure(RoutingContext ctx) {
-    new RoutingContextWrapper(getAndCheckRoutePath(ctx), state.getRoutes(), ctx).next();
+    new RoutingContextWrapper(getAndCheckRoutePath(ctx), state, ctx).next();
   }
 
   @Override
@@ -271,6 +271,27 @@ public class RouterImpl implements Router {
     return this;
   }
 
+  @Override
+  public synchronized Router routeTree(boolean enable) {
+    state = state.setRouteTree(enable);
+    return this;
+  }
+
+  @Override
+  public synchronized Router matchCache(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size must be >= 0");
+    }
+    state = state.setMatchCacheSize(size);
+    return this;
+  }
+
+  @Override
+  public synchronized Router metrics(boolean enable) {
+    state = state.setMetrics(enable);
+    return this;
+  }
+
   @Override
   public Router mountSubRouter(String mountPoint, Router subRouter) {
     if (mountPoint.endsWith("*")) {
@@ -318,8 +339,13 @@ public class RouterImpl implements Router {
     return vertx;
   }
 
-  Iterator<RouteImpl> iterator() {
-    return state.getRoutes().iterator();
+  RouterState state() {
+    return state;
+  }
+
+  synchronized void refresh() {
+    // the routes are compiled per state, a new state will recompile them
+    state = state.refresh();
   }
 
   Handler<RoutingContext> getErrorHandlerByStatusCode(int statusCode) {
@@ -57,13 +57,22 @@ final class RouterState {
   private final int orderSequence;
   private final Map<Integer, Handler<RoutingContext>> errorHandlers;
   private final Handler<Router> modifiedHandler;
+  private final boolean routeTree;
+  private final int matchCacheSize;
+  private final boolean metrics;
 
-  public RouterState(RouterImpl router, Set<RouteImpl> routes, int orderSequence, Map<Integer, Handler<RoutingContext>> errorHandlers, Handler<Router> modifiedHandler) {
+  // compiled lazily from the routes of this state
+  private volatile RouteIndex index;
+
+  public RouterState(RouterImpl router, Set<RouteImpl> routes, int orderSequence, Map<Integer, Handler<RoutingContext>> errorHandlers, Handler<Router> modifiedHandler, boolean routeTree, int matchCacheSize, boolean metrics) {
     this.router = router;
     this.routes = routes;
     this.orderSequence = orderSequence;
     this.errorHandlers = errorHandlers;
     this.modifiedHandler = modifiedHandler;
+    this.routeTree = routeTree;
+    this.matchCacheSize = matchCacheSize;
+    this.metrics = metrics;
   }
 
   public RouterState(RouterImpl router) {
@@ -72,7 +81,10 @@ final class RouterState {
       null,
       0,
       null,
-      null);
+      null,
+      false,
+      0,
+      false);
   }
 
   public RouterImpl router() {
@@ -92,7 +104,10 @@ final class RouterState {
       new TreeSet<>(routeComparator),
       this.orderSequence,
       this.errorHandlers,
-      this.modifiedHandler);
+      this.modifiedHandler,
+      this.routeTree,
+      this.matchCacheSize,
+      this.metrics);
 
     newState.routes.addAll(routes);
     return newState;
@@ -110,7 +125,10 @@ final class RouterState {
       routes,
       this.orderSequence,
       this.errorHandlers,
-      this.modifiedHandler);
+      this.modifiedHandler,
+      this.routeTree,
+      this.matchCacheSize,
+      this.metrics);
   }
 
   RouterState clearRoutes() {
@@ -119,7 +137,10 @@ final class RouterState {
       new TreeSet<>(routeComparator),
       this.orderSequence,
       this.errorHandlers,
-      this.modifiedHandler);
+      this.modifiedHandler,
+      this.routeTree,
+      this.matchCacheSize,
+      this.metrics);
   }
 
   RouterState removeRoute(RouteImpl route) {
@@ -134,7 +155,10 @@ final class RouterState {
       routes,
       this.orderSequence,
       this.errorHandlers,
-      this.modifiedHandler);
+      this.modifiedHandler,
+      this.routeTree,
+      this.matchCacheSize,
+      this.metrics);
   }
 
   public int getOrderSequence() {
@@ -147,7 +171,10 @@ final class RouterState {
       this.routes,
       this.orderSequence + 1,
       this.errorHandlers,
-      this.modifiedHandler);
+      this.modifiedHandler,
+      this.routeTree,
+      this.matchCacheSize,
+      this.metrics);
   }
 
   RouterState setOrderSequence(int orderSequence) {
@@ -156,7 +183,10 @@ final class RouterState {
       this.routes,
       orderSequence,
       this.errorHandlers,
-      this.modifiedHandler);
+      this.modifiedHandler,
+      this.routeTree,
+      this.matchCacheSize,
+      this.metrics);
   }
 
   public Map<Integer, Handler<RoutingContext>> getErrorHandlers() {
@@ -169,7 +199,10 @@ final class RouterState {
       this.routes,
       this.orderSequence,
       errorHandlers,
-      this.modifiedHandler);
+      this.modifiedHandler,
+      this.routeTree,
+      this.matchCacheSize,
+      this.metrics);
   }
 
   Handler<RoutingContext> getErrorHandler(int errorCode) {
@@ -185,7 +218,10 @@ final class RouterState {
       this.routes,
       this.orderSequence,
       this.errorHandlers == null ? new HashMap<>() : new HashMap<>(errorHandlers),
-      this.modifiedHandler);
+      this.modifiedHandler,
+      this.routeTree,
+      this.matchCacheSize,
+      this.metrics);
 
     newState.errorHandlers.put(errorCode, errorHandler);
     return newState;
@@ -201,7 +237,87 @@ final class RouterState {
       this.routes,
       this.orderSequence,
       this.errorHandlers,
-      modifiedHandler);
+      modifiedHandler,
+      this.routeTree,
+      this.matchCacheSize,
+      this.metrics);
+  }
+
+  public boolean isRouteTree() {
+    return routeTree;
+  }
+
+  RouterState setRouteTree(boolean routeTree) {
+    return new RouterState(
+      this.router,
+      this.routes,
+      this.orderSequence,
+      this.errorHandlers,
+      this.modifiedHandler,
+      routeTree,
+      this.matchCacheSize,
+      this.metrics);
+  }
+
+  public int getMatchCacheSize() {
+    return matchCacheSize;
+  }
+
+  RouterState setMatchCacheSize(int matchCacheSize) {
+    return new RouterState(
+      this.router,
+      this.routes,
+      this.orderSequence,
+      this.errorHandlers,
+      this.modifiedHandler,
+      this.routeTree,
+      matchCacheSize,
+      this.metrics);
+  }
+
+  public boolean isMetrics() {
+    return metrics;
+  }
+
+  RouterState setMetrics(boolean metrics) {
+    return new RouterState(
+      this.router,
+      this.routes,
+      this.orderSequence,
+      this.errorHandlers,
+      this.modifiedHandler,
+      this.routeTree,
+      this.matchCacheSize,
+      metrics);
+  }
+
+  /**
+   * Create a copy of this state, the copy will recompile the routes when needed. This is used when the state of an
+   * already added route is changed.
+   */
+  RouterState refresh() {
+    return new RouterState(
+      this.router,
+      this.routes,
+      this.orderSequence,
+      this.errorHandlers,
+      this.modifiedHandler,
+      this.routeTree,
+      this.matchCacheSize,
+      this.metrics);
+  }
+
+  /**
+   * @return the routes of this state compiled for dispatching
+   */
+  RouteIndex index() {
+    RouteIndex index = this.index;
+    if (index == null) {
+      // concurrent compilations are harmless, the result is the same
+      index = new RouteIndex(getRoutes(), routeTree, matchCacheSize);
+      this.index = index;
+    }
+    return index;
   }
 
   @Override
@@ -211,6 +327,9 @@ final class RouterState {
       ", orderSequence=" + orderSequence +
       ", errorHandlers=" + errorHandlers +
       ", modifiedHandler=" + modifiedHandler +
+      ", routeTree=" + routeTree +
+      ", matchCacheSize=" + matchCacheSize +
+      ", metrics=" + metrics +
       '}';
   }
 }
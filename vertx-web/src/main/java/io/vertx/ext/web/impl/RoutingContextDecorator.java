@@ -11,6 +11,7 @@ import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.auth.User;
 import io.vertx.ext.web.*;
 
@@ -245,6 +246,16 @@ public class RoutingContextDecorator implements RoutingContext {
     decoratedContext.setBody(body);
   }
 
+  @Override
+  public ReadStream<Buffer> getBodyStream() {
+    return decoratedContext.getBodyStream();
+  }
+
+  @Override
+  public void setBodyStream(ReadStream<Buffer> stream) {
+    decoratedContext.setBodyStream(stream);
+  }
+
   @Override
   public void setSession(Session session) {
     decoratedContext.setSession(session);
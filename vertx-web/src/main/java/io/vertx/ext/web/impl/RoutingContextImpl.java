@@ -30,13 +30,13 @@ import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.http.impl.HttpUtils;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.auth.User;
 import io.vertx.ext.web.*;
 import io.vertx.ext.web.codec.impl.BodyCodecImpl;
 import io.vertx.ext.web.handler.impl.HttpStatusException;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -47,8 +47,9 @@ public class RoutingContextImpl extends RoutingContextImplBase {
   private final HttpServerRequest request;
   private Map<String, Object> data;
   private Map<String, String> pathParams;
+  private PathParams matchedPathParams;
   private MultiMap queryParams;
-  private AtomicInteger handlerSeq = new AtomicInteger();
+  private int handlerSeq;
   private Map<Integer, Handler<Void>> headersEndHandlers;
   private Map<Integer, Handler<Void>> bodyEndHandlers;
   private Throwable failure;
@@ -58,16 +59,17 @@ public class RoutingContextImpl extends RoutingContextImplBase {
   private ParsableHeaderValuesContainer parsedHeaders;
 
   private Buffer body;
+  private ReadStream<Buffer> bodyStream;
   private Set<FileUpload> fileUploads;
   private Session session;
   private User user;
 
-  public RoutingContextImpl(String mountPoint, RouterImpl router, HttpServerRequest request, Set<RouteImpl> routes, boolean allowForward) {
-    super(mountPoint, routes);
+  public RoutingContextImpl(String mountPoint, RouterImpl router, HttpServerRequest request, RouterState routerState, boolean allowForward) {
+    super(mountPoint, routerState);
     this.router = router;
     this.request = new HttpServerRequestWrapper(request, allowForward);
 
-    fillParsedHeaders(request);
+    this.parsedHeaders = new ParsableHeaderValuesContainer(request);
     if (request.path().length() == 0) {
       // HTTP paths must start with a '/'
       fail(400);
@@ -77,27 +79,6 @@ public class RoutingContextImpl extends RoutingContextImplBase {
     }
   }
 
-  private String ensureNotNull(String string){
-    return string == null ? "" : string;
-  }
-
-  private void fillParsedHeaders(HttpServerRequest request) {
-    String accept = request.getHeader("Accept");
-    String acceptCharset = request.getHeader ("Accept-Charset");
-    String acceptEncoding = request.getHeader("Accept-Encoding");
-    String acceptLanguage = request.getHeader("Accept-Language");
-    String contentType = ensureNotNull(request.getHeader("Content-Type"));
-
-    parsedHeaders = new ParsableHeaderValuesContainer(
-        HeaderParser.sort(HeaderParser.convertToParsedHeaderValues(accept, ParsableMIMEValue::new)),
-        HeaderParser.sort(HeaderParser.convertToParsedHeaderValues(acceptCharset, ParsableHeaderValue::new)),
-        HeaderParser.sort(HeaderParser.convertToParsedHeaderValues(acceptEncoding, ParsableHeaderValue::new)),
-        HeaderParser.sort(HeaderParser.convertToParsedHeaderValues(acceptLanguage, ParsableLanguageValue::new)),
-        new ParsableMIMEValue(contentType)
-    );
-
-  }
-
   @Override
   public HttpServerRequest request() {
     return request;
@@ -136,6 +117,7 @@ public class RoutingContextImpl extends RoutingContextImplBase {
       // Send back FAILURE
       unhandledFailure(statusCode, failure, router);
     } else {
+      recordMatchFailure();
       Handler<RoutingContext> handler = router.getErrorHandlerByStatusCode(this.matchFailure);
       this.statusCode = this.matchFailure;
       if (handler == null) { // Default 404 handling
@@ -277,6 +259,16 @@ public class RoutingContextImpl extends RoutingContextImplBase {
     this.body = body;
   }
 
+  @Override
+  public ReadStream<Buffer> getBodyStream() {
+    return bodyStream;
+  }
+
+  @Override
+  public void setBodyStream(ReadStream<Buffer> stream) {
+    this.bodyStream = stream;
+  }
+
   @Override
   public Set<FileUpload> fileUploads() {
     return getFileUploads();
@@ -373,6 +365,15 @@ public class RoutingContextImpl extends RoutingContextImplBase {
     restart();
   }
 
+  @Override
+  void addPathParam(String name, String source, int start, int end) {
+    if (matchedPathParams == null) {
+      matchedPathParams = new PathParams();
+      ((HttpServerRequestWrapper) request).pathParams(matchedPathParams);
+    }
+    matchedPathParams.add(name, source, start, end);
+  }
+
   @Override
   public Map<String, String> pathParams() {
     return getPathParams();
@@ -414,6 +415,9 @@ public class RoutingContextImpl extends RoutingContextImplBase {
     if (pathParams == null) {
       pathParams = new HashMap<>();
     }
+    if (matchedPathParams != null) {
+      matchedPathParams.putInto(pathParams);
+    }
     return pathParams;
   }
 
@@ -443,9 +447,7 @@ public class RoutingContextImpl extends RoutingContextImplBase {
   }
 
   private void doFail() {
-    this.iter = router.iterator();
-    currentRoute = null;
-    next();
+    restart(router.state());
   }
 
   private Map<String, Object> getData() {
@@ -456,7 +458,7 @@ public class RoutingContextImpl extends RoutingContextImplBase {
   }
 
   private int nextHandlerSeq() {
-    int seq = handlerSeq.incrementAndGet();
+    int seq = ++handlerSeq;
     if (seq == Integer.MAX_VALUE) {
       throw new IllegalStateException("Too many header/body end handlers!");
     }
@@ -18,16 +18,15 @@ package io.vertx.ext.web.impl;
 
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.vertx.core.Handler;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.impl.logging.Logger;
 import io.vertx.core.impl.logging.LoggerFactory;
+import io.vertx.ext.web.BodyOptions;
 import io.vertx.ext.web.Route;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.impl.HttpStatusException;
 
-import java.util.Iterator;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -36,26 +35,49 @@ public abstract class RoutingContextImplBase implements RoutingContext {
 
   private static final Logger LOG = LoggerFactory.getLogger(RoutingContextImplBase.class);
 
-  private final Set<RouteImpl> routes;
+  private RouterState routerState;
 
   protected final String mountPoint;
-  protected Iterator<RouteImpl> iter;
+  // the routes selected for the request, selected on the first iteration as they depend on the request
+  private RouteIndex index;
+  private HttpMethod method;
+  private int host;
+  private int[] candidates;
+  // the mounted sub routers selected for the request, tried in order with the candidates
+  private int[] mounts;
+  // the cached match results of the request, when the router caches them
+  private RouteMatch[] matches;
+  // set while a match is recorded for the match cache
+  RouteMatch.Recorder recorder;
+  // the next routes are checked without being entered, the path params they match are dropped
+  boolean peeking;
+  // position of the next candidate and mounted sub router to try
+  private int candidate;
+  private int mount;
+  // index of the current route in the route index
+  private int currentRouteIndex = -1;
   protected RouteState currentRoute;
-  private AtomicInteger currentRouteNextHandlerIndex;
-  private AtomicInteger currentRouteNextFailureHandlerIndex;
+  // a context is confined to the request event loop, no need for atomic counters
+  private int currentRouteNextHandlerIndex;
+  private int currentRouteNextFailureHandlerIndex;
   // When Route#matches executes, if it returns != 0 this flag is configured
   // to write the correct status code at the end of routing process
   int matchFailure;
+  // index of the route after which a route skipped for its method can still turn the match failure into a 405
+  private int matchFailureIndex;
   // the current path matched string
   int matchRest = -1;
   boolean matchNormalized;
+  // the metrics of the route handling the request and when it started, when the router records metrics
+  private RouteStats routeStats;
+  private long routeStart;
+  // the metrics of the last route that handled the request, the one a 404 is recorded on
+  private RouteStats lastRouteStats;
+  private boolean routeStatsEndHandler;
 
-  RoutingContextImplBase(String mountPoint, Set<RouteImpl> routes) {
+  RoutingContextImplBase(String mountPoint, RouterState routerState) {
     this.mountPoint = mountPoint;
-    this.routes = routes;
-    this.iter = routes.iterator();
-    this.currentRouteNextHandlerIndex = new AtomicInteger(0);
-    this.currentRouteNextFailureHandlerIndex = new AtomicInteger(0);
+    this.routerState = routerState;
     resetMatchFailure();
   }
 
@@ -72,31 +94,76 @@ public abstract class RoutingContextImplBase implements RoutingContext {
     return currentRoute.getRoute();
   }
 
+  /**
+   * Add a path parameter matched by the current route. The value is the {@code [start, end)} region of the given
+   * source, which is already decoded.
+   */
+  void addPathParam(String name, String source, int start, int end) {
+    final String value = source.substring(start, end);
+    final HttpServerRequest request = request();
+    if (!request.params().contains(name)) {
+      request.params().add(name, value);
+    }
+    pathParams().put(name, value);
+  }
+
+  /**
+   * Called by a route for each path parameter it matches, a {@code null} source is a parameter that did not
+   * participate in the match.
+   */
+  final void matchedPathParam(String name, String source, int start, int end) {
+    if (peeking) {
+      return;
+    }
+    if (recorder != null) {
+      recorder.pathParam(name, source, start, end);
+    }
+    if (source == null) {
+      final HttpServerRequest request = request();
+      if (!request.params().contains(name)) {
+        request.params().add(name, source);
+      }
+      pathParams().put(name, source);
+    } else {
+      addPathParam(name, source, start, end);
+    }
+  }
+
   int currentRouteNextHandlerIndex() {
-    return currentRouteNextHandlerIndex.intValue();
+    return currentRouteNextHandlerIndex;
   }
 
   int currentRouteNextFailureHandlerIndex() {
-    return currentRouteNextFailureHandlerIndex.intValue();
+    return currentRouteNextFailureHandlerIndex;
   }
 
   void restart() {
-    this.iter = routes.iterator();
+    leaveRoute();
+    // a reroute removes the end handlers
+    routeStatsEndHandler = false;
+    lastRouteStats = null;
+    this.index = null;
     currentRoute = null;
+    matchFailureIndex = -1;
     next();
   }
 
+  void restart(RouterState routerState) {
+    this.routerState = routerState;
+    restart();
+  }
+
   boolean iterateNext() {
     boolean failed = failed();
     if (currentRoute != null) { // Handle multiple handlers inside route object
       try {
         if (!failed && currentRoute.hasNextContextHandler(this)) {
-          currentRouteNextHandlerIndex.incrementAndGet();
+          currentRouteNextHandlerIndex++;
           resetMatchFailure();
           currentRoute.handleContext(this);
           return true;
         } else if (failed && currentRoute.hasNextFailureHandler(this)) {
-          currentRouteNextFailureHandlerIndex.incrementAndGet();
+          currentRouteNextFailureHandlerIndex++;
           currentRoute.handleFailure(this);
           return true;
         }
@@ -105,15 +172,19 @@ public abstract class RoutingContextImplBase implements RoutingContext {
         return true;
       }
     }
+    if (index == null) {
+      selectRoutes();
+    }
     // Search for more handlers
-    while (iter.hasNext()) {
+    while (hasNextRoute()) {
+      currentRouteIndex = nextRoute();
       // state is locked at this moment
-      RouteState routeState = iter.next().state();
+      RouteState routeState = index.route(currentRouteIndex).state();
 
-      currentRouteNextHandlerIndex.set(0);
-      currentRouteNextFailureHandlerIndex.set(0);
+      currentRouteNextHandlerIndex = 0;
+      currentRouteNextFailureHandlerIndex = 0;
       try {
-        int matchResult = routeState.matches(this, mountPoint(), failed);
+        int matchResult = matches(routeState, currentRouteIndex, failed);
         if (matchResult == 0) {
           if (LOG.isTraceEnabled()) {
             LOG.trace("Route matches: " + routeState);
@@ -125,10 +196,12 @@ public abstract class RoutingContextImplBase implements RoutingContext {
               LOG.trace("Calling the " + (failed ? "failure" : "") + " handler");
             }
             if (failed && currentRoute.hasNextFailureHandler(this)) {
-              currentRouteNextFailureHandlerIndex.incrementAndGet();
+              enterRoute(routeState);
+              currentRouteNextFailureHandlerIndex++;
               routeState.handleFailure(this);
             } else if (currentRoute.hasNextContextHandler(this)) {
-              currentRouteNextHandlerIndex.incrementAndGet();
+              enterRoute(routeState);
+              currentRouteNextHandlerIndex++;
               routeState.handleContext(this);
             } else {
               continue;
@@ -139,6 +212,7 @@ public abstract class RoutingContextImplBase implements RoutingContext {
           return true;
         } else if (matchResult != 404) {
           this.matchFailure = matchResult;
+          this.matchFailureIndex = currentRouteIndex;
         }
       } catch (Throwable e) {
         e.printStackTrace();
@@ -152,9 +226,151 @@ public abstract class RoutingContextImplBase implements RoutingContext {
         return true;
       }
     }
+    leaveRoute();
+    if (!failed) {
+      checkSkippedRoutes();
+    }
     return false;
   }
 
+  /**
+   * Routes not accepting the request method or host are not tried. The ones after the last match failure must still
+   * be matched, as any of them could have failed the match of the request (e.g. with a 405) if it had been tried.
+   */
+  private void checkSkippedRoutes() {
+    int skipped = index.nextSkipped(candidates, method, host, matchFailureIndex);
+    while (skipped != -1) {
+      currentRouteNextHandlerIndex = 0;
+      currentRouteNextFailureHandlerIndex = 0;
+      try {
+        final int matchResult = matches(index.route(skipped).state(), skipped, false);
+        if (matchResult != 0 && matchResult != 404) {
+          this.matchFailure = matchResult;
+          this.matchFailureIndex = skipped;
+        }
+      } catch (RuntimeException e) {
+        // the route would have failed while matching, ignore it as the routing is already over
+      }
+      skipped = index.nextSkipped(candidates, method, host, skipped);
+    }
+  }
+
+  private void selectRoutes() {
+    index = routerState.index();
+    method = request().method();
+    host = index.host(request().host());
+    candidates = index.candidates(this, method);
+    mounts = index.mounts(this);
+    matches = index.matches(this, method);
+    candidate = 0;
+    mount = 0;
+    currentRouteIndex = -1;
+  }
+
+  private int matches(RouteState routeState, int routeIndex, boolean failed) {
+    if (matches == null) {
+      return routeState.matches(this, mountPoint(), failed);
+    }
+    return routeState.matches(this, mountPoint(), failed, matches, routeIndex);
+  }
+
+  /**
+   * Record the match failure ending the routing of the request: a 404 on the last route that handled the request and
+   * called {@link #next()}, any other status on the route that failed the match with it.
+   */
+  void recordMatchFailure() {
+    if (!routerState.isMetrics()) {
+      return;
+    }
+    if (matchFailure == 404) {
+      if (lastRouteStats != null) {
+        lastRouteStats.reject(404);
+      }
+    } else if (index != null && matchFailureIndex != -1) {
+      index.route(matchFailureIndex).stats().reject(matchFailure);
+    }
+  }
+
+  /**
+   * Start recording the latency of the route about to handle the request, the previous route is done with it.
+   */
+  private void enterRoute(RouteState routeState) {
+    if (!routerState.isMetrics()) {
+      return;
+    }
+    leaveRoute();
+    if (!routeStatsEndHandler) {
+      // the last route is done when the response is sent
+      routeStatsEndHandler = true;
+      addBodyEndHandler(v -> leaveRoute());
+    }
+    routeStats = routeState.getRoute().stats();
+    lastRouteStats = routeStats;
+    routeStats.hit();
+    routeStart = System.nanoTime();
+  }
+
+  private void leaveRoute() {
+    if (routeStats != null) {
+      routeStats.latency(System.nanoTime() - routeStart);
+      routeStats = null;
+    }
+  }
+
+  /**
+   * The body options of the first of the next routes which would match the request and has body options, the routes
+   * are matched the same way as when they are tried.
+   *
+   * @return the body options or {@code null} when no such route has some
+   */
+  public BodyOptions nextBodyOptions() {
+    if (index == null) {
+      return null;
+    }
+    int nextCandidate = candidate;
+    int nextMount = mount;
+    while (nextCandidate < candidates.length || nextMount < mounts.length) {
+      final int routeIndex;
+      // both selections are in router order
+      if (nextMount == mounts.length || nextCandidate < candidates.length && candidates[nextCandidate] < mounts[nextMount]) {
+        routeIndex = candidates[nextCandidate++];
+      } else {
+        routeIndex = mounts[nextMount++];
+      }
+      if (!accepts(routeIndex)) {
+        continue;
+      }
+      final RouteImpl route = index.route(routeIndex);
+      final BodyOptions options = route.bodyOptions();
+      if (options != null && route.state().peek(this, mountPoint())) {
+        return options;
+      }
+    }
+    return null;
+  }
+
+  private boolean hasNextRoute() {
+    while (candidate < candidates.length && !accepts(candidates[candidate])) {
+      candidate++;
+    }
+    while (mount < mounts.length && !accepts(mounts[mount])) {
+      mount++;
+    }
+    return candidate < candidates.length || mount < mounts.length;
+  }
+
+  private boolean accepts(int routeIndex) {
+    return index.accepts(routeIndex, method) && index.acceptsHost(routeIndex, host);
+  }
+
+  private int nextRoute() {
+    // both selections are in router order
+    if (mount == mounts.length || candidate < candidates.length && candidates[candidate] < mounts[mount]) {
+      return candidates[candidate++];
+    }
+    return mounts[mount++];
+  }
+
   private void handleInHandlerRuntimeFailure(RouterImpl router, boolean failed, Throwable t) {
     if (LOG.isTraceEnabled()) {
       LOG.trace("Throwable thrown from handler", t);
@@ -203,5 +419,6 @@ public abstract class RoutingContextImplBase implements RoutingContext {
 
   private void resetMatchFailure() {
     this.matchFailure = 404;
+    this.matchFailureIndex = currentRouteIndex;
   }
 }
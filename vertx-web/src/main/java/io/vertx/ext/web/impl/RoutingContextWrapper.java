@@ -27,6 +27,7 @@ import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.auth.User;
 import io.vertx.ext.web.*;
 
@@ -42,8 +43,8 @@ public class RoutingContextWrapper extends RoutingContextImplBase {
   protected final RoutingContext inner;
   private final String mountPoint;
 
-  public RoutingContextWrapper(String mountPoint, Set<RouteImpl> iter, RoutingContext inner) {
-    super(mountPoint, iter);
+  public RoutingContextWrapper(String mountPoint, RouterState routerState, RoutingContext inner) {
+    super(mountPoint, routerState);
     this.inner = inner;
     String parentMountPoint = inner.mountPoint();
     if (parentMountPoint == null) {
@@ -245,6 +246,16 @@ public class RoutingContextWrapper extends RoutingContextImplBase {
     inner.setBody(body);
   }
 
+  @Override
+  public ReadStream<Buffer> getBodyStream() {
+    return inner.getBodyStream();
+  }
+
+  @Override
+  public void setBodyStream(ReadStream<Buffer> stream) {
+    inner.setBodyStream(stream);
+  }
+
   @Override
   public Set<FileUpload> fileUploads() {
     return inner.fileUploads();
@@ -270,6 +281,16 @@ public class RoutingContextWrapper extends RoutingContextImplBase {
     inner.reroute(method, path);
   }
 
+  @Override
+  void addPathParam(String name, String source, int start, int end) {
+    if (inner instanceof RoutingContextImplBase) {
+      // let the context owning the params decide when to extract them
+      ((RoutingContextImplBase) inner).addPathParam(name, source, start, end);
+    } else {
+      super.addPathParam(name, source, start, end);
+    }
+  }
+
   @Override
   public Map<String, String> pathParams() {
     return inner.pathParams();
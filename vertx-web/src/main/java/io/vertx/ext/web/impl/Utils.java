@@ -213,6 +213,12 @@ public class Utils extends io.vertx.core.impl.Utils {
         }
       }
 
+      // the last etag is not followed by a comma
+      if (etagStale && start < end) {
+        String match = noneMatch.substring(start, end);
+        etagStale = !(match.equals(etag) || match.equals("W/" + etag) || ("W/" + match).equals(etag));
+      }
+
       if (etagStale) {
         return false;
       }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.web;
+
+import io.vertx.core.http.HttpMethod;
+import org.junit.Test;
+
+/**
+ * Runs all the router tests with the match cache enabled, the routing outcome must be the same.
+ */
+public class MatchCacheTest extends RouterTest {
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    router.matchCache(4);
+  }
+
+  @Test
+  public void testMatchCachePathParams() throws Exception {
+    router.route("/users/:id").handler(rc -> rc.response().setStatusMessage(rc.pathParam("id") + rc.request().getParam("id")).end());
+    router.routeWithRegex(".*/orders/(\\d+)").handler(rc -> rc.response().setStatusMessage(rc.pathParam("param0")).end());
+
+    for (int i = 0; i < 3; i++) {
+      testRequest(HttpMethod.GET, "/users/1", 200, "11");
+      testRequest(HttpMethod.GET, "/users/2", 200, "22");
+      testRequest(HttpMethod.GET, "/users/3/orders/4", 200, "4");
+    }
+  }
+
+  @Test
+  public void testMatchCacheRouteChanges() throws Exception {
+    Route route = router.route("/foo").handler(rc -> rc.response().setStatusMessage("foo").end());
+
+    testRequest(HttpMethod.GET, "/foo", 200, "foo");
+    testRequest(HttpMethod.GET, "/bar", 404, "Not Found");
+    router.route("/bar").handler(rc -> rc.response().setStatusMessage("bar").end());
+    testRequest(HttpMethod.GET, "/bar", 200, "bar");
+    route.disable();
+    testRequest(HttpMethod.GET, "/foo", 404, "Not Found");
+    route.enable();
+    testRequest(HttpMethod.GET, "/foo", 200, "foo");
+    route.method(HttpMethod.POST);
+    testRequest(HttpMethod.GET, "/foo", 405, "Method Not Allowed");
+    route.path("/quux");
+    testRequest(HttpMethod.GET, "/quux", 405, "Method Not Allowed");
+    route.remove();
+    testRequest(HttpMethod.GET, "/quux", 404, "Not Found");
+  }
+
+  @Test
+  public void testMatchCacheContentNegotiation() throws Exception {
+    router.route("/foo").produces("application/json").handler(rc -> rc.response().setStatusMessage("json").end());
+    router.route("/foo").produces("text/html").handler(rc -> rc.response().setStatusMessage("html").end());
+
+    for (int i = 0; i < 2; i++) {
+      testRequestWithAccepts(HttpMethod.GET, "/foo", "application/json", 200, "json");
+      testRequestWithAccepts(HttpMethod.GET, "/foo", "text/html", 200, "html");
+      testRequestWithAccepts(HttpMethod.GET, "/foo", "text/plain", 406, "Not Acceptable");
+    }
+  }
+
+  @Test
+  public void testMatchCacheVirtualHost() throws Exception {
+    router.route().virtualHost("*.com").handler(rc -> rc.response().setStatusMessage("com").end());
+    router.route().handler(rc -> rc.response().setStatusMessage("other").end());
+
+    for (int i = 0; i < 2; i++) {
+      testRequest(HttpMethod.GET, "/", req -> req.setHost("www.mysite.com"), 200, "com", null);
+      testRequest(HttpMethod.GET, "/", req -> req.setHost("www.mysite.net"), 200, "other", null);
+    }
+  }
+}
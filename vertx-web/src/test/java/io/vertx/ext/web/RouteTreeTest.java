@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.web;
+
+import io.vertx.core.http.HttpMethod;
+import org.junit.Test;
+
+/**
+ * Runs all the router tests with the route tree enabled, the routing outcome must be the same.
+ */
+public class RouteTreeTest extends RouterTest {
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    router.routeTree(true);
+  }
+
+  @Test
+  public void testRouteTreeKeepsOrder() throws Exception {
+    router.routeWithRegex("/foo/b.*").handler(rc -> rc.response().setStatusMessage("regex").end());
+    router.route("/foo/bar").handler(rc -> rc.response().setStatusMessage("literal").end());
+    router.route("/foo/:id").handler(rc -> rc.response().setStatusMessage("param").end());
+    router.route().handler(rc -> rc.response().setStatusMessage("any").end());
+
+    testRequest(HttpMethod.GET, "/foo/bar", 200, "regex");
+    testRequest(HttpMethod.GET, "/foo/quux", 200, "param");
+    testRequest(HttpMethod.GET, "/quux", 200, "any");
+  }
+
+  @Test
+  public void testRouteTreeDisableEnable() throws Exception {
+    Route route = router.route("/foo/bar").handler(rc -> rc.response().setStatusMessage("bar").end());
+    router.route("/foo/*").handler(rc -> rc.response().setStatusMessage("foo").end());
+
+    testRequest(HttpMethod.GET, "/foo/bar", 200, "bar");
+    route.disable();
+    testRequest(HttpMethod.GET, "/foo/bar", 200, "foo");
+    route.enable();
+    testRequest(HttpMethod.GET, "/foo/bar", 200, "bar");
+    route.remove();
+    testRequest(HttpMethod.GET, "/foo/bar", 200, "foo");
+  }
+
+  @Test
+  public void testRouteTreeSubRouter() throws Exception {
+    Router subRouter = Router.router(vertx).routeTree(true);
+    subRouter.route("/").handler(rc -> rc.response().setStatusMessage("root").end());
+    subRouter.route("/users/:id").handler(rc -> rc.response().setStatusMessage("user " + rc.pathParam("id")).end());
+    subRouter.route("/users").handler(rc -> rc.response().setStatusMessage("users").end());
+    router.mountSubRouter("/api", subRouter);
+
+    testRequest(HttpMethod.GET, "/api", 200, "root");
+    testRequest(HttpMethod.GET, "/api/", 200, "root");
+    testRequest(HttpMethod.GET, "/api/users", 200, "users");
+    testRequest(HttpMethod.GET, "/api/users/1", 200, "user 1");
+    testRequest(HttpMethod.GET, "/api/orders", 404, "Not Found");
+  }
+}
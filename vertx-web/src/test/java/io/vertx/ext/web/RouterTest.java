@@ -2540,6 +2540,60 @@ public class RouterTest extends WebTestBase {
     testRequest(HttpMethod.GET, "/", req -> req.setHost("www.mysite.net"), 500, "Internal Server Error", null);
   }
 
+  @Test
+  public void testVHostExactNames() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      final int n = i;
+      router.get("/foo").virtualHost("tenant" + i + ".mysite.com").handler(ctx -> ctx.response().setStatusMessage("tenant" + n).end());
+    }
+    router.get("/foo").virtualHost("*.mysite.com").handler(ctx -> ctx.response().setStatusMessage("wildcard").end());
+    router.post("/bar").virtualHost("tenant1.mysite.com").handler(ctx -> ctx.response().end());
+
+    testRequest(HttpMethod.GET, "/foo", req -> req.setHost("tenant3.mysite.com"), 200, "tenant3", null);
+    testRequest(HttpMethod.GET, "/foo", req -> req.setHost("TENANT7.MySite.com:8080"), 200, "tenant7", null);
+    testRequest(HttpMethod.GET, "/foo", req -> req.setHost("other.mysite.com"), 200, "wildcard", null);
+    testRequest(HttpMethod.GET, "/foo", req -> req.setHost("tenant3.mysite.net"), 404, "Not Found", null);
+    // a route for another host still fails the match as before
+    testRequest(HttpMethod.GET, "/bar", req -> req.setHost("tenant2.mysite.com"), 405, "Method Not Allowed", null);
+  }
+
+  @Test
+  public void testRouteMetrics() throws Exception {
+    router.metrics(true);
+    Route foo = router.get("/foo").handler(rc -> rc.next()).handler(rc -> rc.response().end());
+    Route bar = router.post("/bar").handler(rc -> rc.response().end());
+    Route json = router.get("/json").produces("application/json").handler(rc -> rc.response().end());
+    Route pass = router.get("/pass").handler(RoutingContext::next);
+
+    for (int i = 0; i < 3; i++) {
+      testRequest(HttpMethod.GET, "/foo", 200, "OK");
+    }
+    testRequest(HttpMethod.GET, "/bar", 405, "Method Not Allowed");
+    testRequestWithAccepts(HttpMethod.GET, "/json", "text/html", 406, "Not Acceptable");
+    testRequest(HttpMethod.GET, "/pass", 404, "Not Found");
+
+    RouteMetrics metrics = foo.metrics();
+    assertEquals("/foo", metrics.getPath());
+    assertEquals(3, metrics.getHits());
+    assertEquals(3, metrics.getLatencyCount());
+    assertTrue(metrics.getLatencyMin() <= metrics.getLatency50());
+    assertTrue(metrics.getLatency99() <= metrics.getLatencyMax());
+    // the routes tried for the other requests did not answer them
+    assertEquals(0, metrics.getNotFound());
+    assertEquals(0, metrics.getMethodNotAllowed());
+    assertEquals(1, bar.metrics().getMethodNotAllowed());
+    assertEquals(0, bar.metrics().getHits());
+    assertEquals(0, bar.metrics().getNotFound());
+    assertEquals(1, json.metrics().getNotAcceptable());
+    assertEquals(0, json.metrics().getNotFound());
+    assertEquals(1, pass.metrics().getHits());
+    assertEquals(1, pass.metrics().getNotFound());
+
+    router.metrics(false);
+    testRequest(HttpMethod.GET, "/foo", 200, "OK");
+    assertEquals(3, foo.metrics().getHits());
+  }
+
   @Test
   public void testOverlappingRoutes() throws Exception {
     router.route(HttpMethod.PUT, "/foo/:param1").order(1).handler(routingContext -> {
@@ -2567,6 +2621,39 @@ public class RouterTest extends WebTestBase {
     assertNotNull(route.toString());
   }
 
+  @Test
+  public void testPathParamsMatchedByEachRoute() throws Exception {
+    router.route("/users/:id/*").handler(rc -> {
+      rc.put("first", rc.pathParam("id"));
+      rc.next();
+    });
+    router.route("/users/:uid/orders/:id").handler(rc -> {
+      assertEquals("a b", rc.get("first"));
+      assertEquals("a b", rc.pathParam("uid"));
+      assertEquals("42", rc.pathParam("id"));
+      // the first match and the query win on the request params
+      assertEquals("a b", rc.request().getParam("id"));
+      assertEquals("q", rc.request().getParam("uid"));
+      rc.response().end();
+    });
+
+    testRequest(HttpMethod.GET, "/users/a%20b/orders/42?uid=q", 200, "OK");
+    testRequest(HttpMethod.GET, "/users/%zz/orders/42", 400, "Bad Request");
+  }
+
+  @Test
+  public void testMethodNotAllowedIsTheLastMatchFailure() throws Exception {
+    router.get("/foo").consumes("application/json").handler(rc -> rc.response().end());
+    router.post("/foo").handler(rc -> rc.response().end());
+    router.put("/bar").handler(rc -> rc.response().end());
+    router.get("/bar").consumes("application/json").handler(rc -> rc.response().end());
+
+    testRequestWithContentType(HttpMethod.GET, "/foo", "text/plain", 405, "Method Not Allowed");
+    testRequestWithContentType(HttpMethod.GET, "/bar", "text/plain", 415, "Unsupported Media Type");
+    testRequest(HttpMethod.DELETE, "/foo", 405, "Method Not Allowed");
+    testRequest(HttpMethod.DELETE, "/quux", 404, "Not Found");
+  }
+
   @Test
   public void testRouteMatching() throws Exception {
     router.route("/foo/bar/").handler(rc -> rc.response().setStatusMessage("socks").end());
@@ -542,4 +542,40 @@ public class SubRouterTest extends WebTestBase {
 
     testRequest(HttpMethod.GET, "/v/files/info", 200, "OK");
   }
+
+  @Test
+  public void testManySubRoutersKeepOrder() throws Exception {
+    router.route("/api/v1/legacy").handler(rc -> rc.response().setStatusMessage("legacy").end());
+    for (int i = 0; i < 20; i++) {
+      Router subRouter = Router.router(vertx);
+      final int n = i;
+      subRouter.route("/foo").handler(rc -> rc.response().setStatusMessage(rc.mountPoint() + " " + n).end());
+      router.mountSubRouter("/api/v" + i, subRouter);
+    }
+    router.route("/api/v3/foo").handler(rc -> rc.response().setStatusMessage("shadowed").end());
+    router.route("/api/v4/bar").handler(rc -> rc.response().setStatusMessage("bar").end());
+
+    testRequest(HttpMethod.GET, "/api/v1/legacy", 200, "legacy");
+    testRequest(HttpMethod.GET, "/api/v1/foo", 200, "/api/v1 1");
+    testRequest(HttpMethod.GET, "/api/v12/foo", 200, "/api/v12 12");
+    testRequest(HttpMethod.GET, "/api/v3/foo", 200, "/api/v3 3");
+    testRequest(HttpMethod.GET, "/api/v4/bar", 200, "bar");
+    testRequest(HttpMethod.GET, "/api/v20/foo", 404, "Not Found");
+  }
+
+  @Test
+  public void testSubRouterMountedAfterRouting() throws Exception {
+    Router subRouter1 = Router.router(vertx);
+    subRouter1.route("/foo").handler(rc -> rc.response().setStatusMessage("sub1").end());
+    router.mountSubRouter("/sub1", subRouter1);
+
+    testRequest(HttpMethod.GET, "/sub1/foo", 200, "sub1");
+    testRequest(HttpMethod.GET, "/sub2/foo", 404, "Not Found");
+
+    Router subRouter2 = Router.router(vertx);
+    subRouter2.route("/foo").handler(rc -> rc.response().setStatusMessage("sub2").end());
+    router.mountSubRouter("/sub2", subRouter2);
+
+    testRequest(HttpMethod.GET, "/sub2/foo", 200, "sub2");
+  }
 }
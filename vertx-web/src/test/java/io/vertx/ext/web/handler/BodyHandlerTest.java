@@ -16,9 +16,14 @@
 
 package io.vertx.ext.web.handler;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.AfterClass;
 import org.junit.Rule;
@@ -29,9 +34,13 @@ import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.OpenOptions;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.parsetools.JsonParser;
+import io.vertx.ext.web.BodyOptions;
 import io.vertx.ext.web.FileUpload;
 import io.vertx.ext.web.Route;
 import io.vertx.ext.web.RoutingContext;
@@ -91,6 +100,40 @@ public class BodyHandlerTest extends WebTestBase {
     }, 200, "OK", null);
   }
 
+  @Test
+  public void testBodyBufferManyChunks() throws Exception {
+    Buffer buff = Buffer.buffer();
+    router.route().handler(rc -> {
+      assertEquals(buff, rc.getBody());
+      assertEquals(buff.toString(), rc.getBodyAsString());
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      for (int i = 0; i < 100; i++) {
+        String chunk = TestUtils.randomAlphaString(1000);
+        buff.appendString(chunk);
+        req.write(chunk);
+      }
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testBodyBufferPreallocated() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setPreallocateBodyBuffer(true));
+    Buffer buff = TestUtils.randomBuffer(1000);
+    router.route().handler(rc -> {
+      assertEquals(buff, rc.getBody());
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, "1000");
+      req.write(buff.slice(0, 500));
+      req.write(buff.slice(500, 1000));
+    }, 200, "OK", null);
+  }
+
   @Test
   public void testBodyString() throws Exception {
     String str = "sausages";
@@ -226,6 +269,40 @@ public class BodyHandlerTest extends WebTestBase {
     testFileUpload(dir.getPath(), 5000);
   }
 
+  @Test
+  public void testFileUploadShardedUploadsDir() throws Exception {
+    router.clear();
+    String dir = getNotCreatedTemporaryFolderName();
+    router.route().handler(BodyHandler.create().setUploadsDirectory(dir).setUploadsDirectoryShards(4));
+    router.route().handler(rc -> {
+      File uploaded = new File(rc.fileUploads().iterator().next().uploadedFileName());
+      File shard = uploaded.getParentFile();
+      assertEquals(new File(dir).getPath(), shard.getParent());
+      assertTrue(Integer.parseInt(shard.getName(), 16) < 4);
+      assertEquals(4, vertx.fileSystem().readDirBlocking(dir).size());
+      rc.next();
+    });
+    testFileUpload(dir, 5000);
+  }
+
+  @Test
+  public void testFileUploadSink() throws Exception {
+    router.clear();
+    File dir = tempUploads.newFolder();
+    router.route().handler(BodyHandler.create().setUploadSink((rc, upload) ->
+      vertx.fileSystem().openBlocking(new File(dir, upload.filename()).getPath(), new OpenOptions())));
+    Buffer fileData = TestUtils.randomBuffer(5000);
+    router.route().handler(rc -> {
+      FileUpload upload = rc.fileUploads().iterator().next();
+      assertNull(upload.uploadedFileName());
+      assertNotNull(upload.sink());
+      assertEquals(fileData.length(), upload.size());
+      assertEquals(fileData, vertx.fileSystem().readFileBlocking(new File(dir, "somefile.dat").getPath()));
+      rc.response().end();
+    });
+    sendFileUploadRequest(fileData, 200, "OK");
+  }
+
   private void testFileUpload(String uploadsDir, int size) throws Exception {
     String name = "somename";
     String fileName = "somefile.dat";
@@ -436,6 +513,139 @@ public class BodyHandlerTest extends WebTestBase {
     }, 200, "OK", null);
   }
 
+  @Test
+  public void testFormURLEncodedChunked() throws Exception {
+    router.route().handler(rc -> {
+      MultiMap attrs = rc.request().formAttributes();
+      assertEquals(100, attrs.size());
+      for (int i = 0; i < 100; i++) {
+        assertEquals("value " + i, attrs.get("attr" + i));
+      }
+      assertEquals("value 0", rc.request().getParam("attr0"));
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.headers().set("content-type", "application/x-www-form-urlencoded");
+      for (int i = 0; i < 100; i++) {
+        String attribute = (i == 0 ? "" : "&") + "attr" + i + "=value+" + i;
+        // split every attribute across two chunks
+        req.write(attribute.substring(0, 3));
+        req.write(attribute.substring(3));
+      }
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testFormURLEncodedMergeAttributes() throws Exception {
+    router.route().handler(rc -> {
+      assertTrue(rc.request().isExpectMultipart());
+      MultiMap params = rc.request().params();
+      assertEquals(2, params.size());
+      assertEquals("foo", params.get("origin"));
+      assertEquals("bar", params.get("q"));
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/?q=bar", req -> {
+      Buffer buffer = Buffer.buffer("origin=foo");
+      req.headers().set("content-length", String.valueOf(buffer.length()));
+      req.headers().set("content-type", "application/x-www-form-urlencoded");
+      req.write(buffer);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testFormURLEncodedMergeAttributesAfterPathParams() throws Exception {
+    router.route("/items/:id").handler(rc -> {
+      assertEquals("path", rc.request().getParam("id"));
+      assertEquals(Arrays.asList("path", "form"), rc.request().params().getAll("id"));
+      assertEquals("path", rc.pathParam("id"));
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/items/path", req -> {
+      Buffer buffer = Buffer.buffer("id=form");
+      req.headers().set("content-length", String.valueOf(buffer.length()));
+      req.headers().set("content-type", "application/x-www-form-urlencoded");
+      req.write(buffer);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testFormURLEncodedNoMergeAttributes() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setMergeFormAttributes(false));
+    router.route().handler(rc -> {
+      assertEquals("foo", rc.request().getFormAttribute("origin"));
+      assertNull(rc.request().getParam("origin"));
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      Buffer buffer = Buffer.buffer("origin=foo");
+      req.headers().set("content-length", String.valueOf(buffer.length()));
+      req.headers().set("content-type", "application/x-www-form-urlencoded");
+      req.write(buffer);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testFormURLEncodedCharset() throws Exception {
+    router.route().handler(rc -> {
+      assertEquals("\u00e9t\u00e9", rc.request().getFormAttribute("season"));
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      Buffer buffer = Buffer.buffer("season=%E9t%E9");
+      req.headers().set("content-length", String.valueOf(buffer.length()));
+      req.headers().set("content-type", "application/x-www-form-urlencoded; charset=ISO-8859-1");
+      req.write(buffer);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testFormURLEncodedAttributeTooLarge() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setMaxFormAttributeSize(16));
+    router.route().handler(rc -> fail("Should not be called"));
+    testRequest(HttpMethod.POST, "/", req -> {
+      Buffer buffer = Buffer.buffer("a=1&text=" + TestUtils.randomAlphaString(100));
+      req.headers().set("content-length", String.valueOf(buffer.length()));
+      req.headers().set("content-type", "application/x-www-form-urlencoded");
+      req.write(buffer);
+    }, 413, "Request Entity Too Large", null);
+  }
+
+  @Test
+  public void testFormURLEncodedTooManyAttributes() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setMaxFormAttributes(2));
+    router.route().handler(rc -> fail("Should not be called"));
+    testRequest(HttpMethod.POST, "/", req -> {
+      Buffer buffer = Buffer.buffer("a=1&b=2&c=3");
+      req.headers().set("content-length", String.valueOf(buffer.length()));
+      req.headers().set("content-type", "application/x-www-form-urlencoded");
+      req.write(buffer);
+    }, 413, "Request Entity Too Large", null);
+  }
+
+  @Test
+  public void testFormURLEncodedReroute() throws Exception {
+    router.route("/toBeRerouted").handler(rc -> {
+      assertEquals("foo", rc.request().getParam("origin"));
+      rc.reroute("/rerouted");
+    });
+    router.route("/rerouted").handler(rc -> {
+      assertEquals(1, rc.request().formAttributes().size());
+      assertEquals("foo", rc.request().getParam("origin"));
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/toBeRerouted", req -> {
+      Buffer buffer = Buffer.buffer("origin=foo");
+      req.headers().set("content-length", String.valueOf(buffer.length()));
+      req.headers().set("content-type", "application/x-www-form-urlencoded");
+      req.write(buffer);
+    }, 200, "OK", null);
+  }
+
   @Test
   public void testFormMultipartFormDataMergeAttributesDefault() throws Exception {
     testFormMultipartFormData(true);
@@ -740,6 +950,362 @@ public class BodyHandlerTest extends WebTestBase {
     sendFileUploadRequest(fileData, 413, "Request Entity Too Large");
   }
   
+  @Test
+  public void testStreamingBody() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true));
+    Buffer buff = TestUtils.randomBuffer(10000);
+    router.route().handler(rc -> {
+      assertNull(rc.getBody());
+      Buffer received = Buffer.buffer();
+      rc.getBodyStream()
+        .handler(received::appendBuffer)
+        .endHandler(v -> {
+          assertEquals(buff, received);
+          rc.response().end();
+        });
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.write(buff);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testStreamingBodyAsJsonParser() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true));
+    router.route().handler(rc -> {
+      JsonParser parser = rc.getBodyAsJsonParser();
+      parser.objectValueMode();
+      JsonArray values = new JsonArray();
+      parser
+        .handler(event -> values.add(event.objectValue()))
+        .endHandler(v -> rc.response().end(values.encode()));
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.write("{\"foo\":1}\n{\"foo\":");
+      req.write("2}\n");
+    }, 200, "OK", "[{\"foo\":1},{\"foo\":2}]");
+  }
+
+  @Test
+  public void testStreamingBodyTooBig() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true).setBodyLimit(5000));
+    Buffer buff = TestUtils.randomBuffer(10000);
+    router.route().handler(rc -> rc.getBodyStream()
+      .handler(chunk -> {})
+      .endHandler(v -> fail("Should not be called")));
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.write(buff);
+    }, 413, "Request Entity Too Large", null);
+  }
+
+  @Test
+  public void testStreamingBodyTooBigContentLength() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true).setBodyLimit(500));
+    router.route().handler(rc -> fail("Should not be called"));
+    testRequest(HttpMethod.POST, "/", req -> req.putHeader(HttpHeaders.CONTENT_LENGTH, "1000").write(TestUtils.randomBuffer(1000)),
+      413, "Request Entity Too Large", null);
+  }
+
+  @Test
+  public void testStreamingFormURLEncoded() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true));
+    router.route().handler(rc -> {
+      assertNull(rc.getBodyStream());
+      assertEquals("junit-testUserAlias", rc.request().params().get("origin"));
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      Buffer buffer = Buffer.buffer("origin=junit-testUserAlias");
+      req.headers().set("content-length", String.valueOf(buffer.length()));
+      req.headers().set("content-type", "application/x-www-form-urlencoded");
+      req.write(buffer);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testGzipBody() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setDecompressionSupported(true));
+    JsonObject json = new JsonObject().put("foo", "bar").put("text", TestUtils.randomAlphaString(10000));
+    router.route().handler(rc -> {
+      assertEquals(json, rc.getBodyAsJson());
+      assertNull(rc.request().getHeader(HttpHeaders.CONTENT_ENCODING));
+      rc.response().end();
+    });
+    Buffer compressed = compress(json.toBuffer(), true);
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.putHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      req.setChunked(true);
+      // the body is received in many chunks
+      for (int i = 0; i < compressed.length(); i += 100) {
+        req.write(compressed.slice(i, Math.min(i + 100, compressed.length())));
+      }
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testDeflateBody() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setDecompressionSupported(true));
+    Buffer buff = Buffer.buffer(TestUtils.randomAlphaString(1000));
+    router.route().handler(rc -> {
+      assertEquals(buff, rc.getBody());
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      Buffer compressed = compress(buff, false);
+      req.putHeader(HttpHeaders.CONTENT_ENCODING, "deflate");
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(compressed.length()));
+      req.write(compressed);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testGzipFormURLEncoded() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setDecompressionSupported(true));
+    router.route().handler(rc -> {
+      assertEquals("junit-testUserAlias", rc.request().getFormAttribute("origin"));
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      Buffer compressed = compress(Buffer.buffer("origin=junit-testUserAlias"), true);
+      req.putHeader(HttpHeaders.CONTENT_TYPE, "application/x-www-form-urlencoded");
+      req.putHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(compressed.length()));
+      req.write(compressed);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testGzipBodyTooBig() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setDecompressionSupported(true).setBodyLimit(10000));
+    router.route().handler(rc -> fail("Should not be called"));
+    // a few hundred bytes decompressed to a megabyte
+    Buffer compressed = compress(Buffer.buffer(new byte[1024 * 1024]), true);
+    assertTrue(compressed.length() < 10000);
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.putHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(compressed.length()));
+      req.write(compressed);
+    }, 413, "Request Entity Too Large", null);
+  }
+
+  @Test
+  public void testGzipBombTooBig() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setDecompressionSupported(true).setBodyLimit(10000));
+    router.route().handler(rc -> fail("Should not be called"));
+    // 64KB decompressed to 64MB, sent in a single chunk
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (OutputStream compressor = new GZIPOutputStream(out)) {
+      for (int i = 0; i < 64; i++) {
+        compressor.write(new byte[1024 * 1024]);
+      }
+    }
+    Buffer compressed = Buffer.buffer(out.toByteArray());
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.putHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(compressed.length()));
+      req.write(compressed);
+    }, 413, "Request Entity Too Large", null);
+  }
+
+  @Test
+  public void testMalformedGzipBody() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setDecompressionSupported(true));
+    router.route().handler(rc -> fail("Should not be called"));
+    testRequest(HttpMethod.POST, "/", req -> {
+      Buffer buff = TestUtils.randomBuffer(1000);
+      req.putHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(buff.length()));
+      req.write(buff);
+    }, 400, "Bad Request", null);
+  }
+
+  @Test
+  public void testUnsupportedContentEncoding() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setDecompressionSupported(true));
+    router.route().handler(rc -> fail("Should not be called"));
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.putHeader(HttpHeaders.CONTENT_ENCODING, "compress");
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, "5");
+      req.write("hello");
+    }, 415, "Unsupported Media Type", null);
+  }
+
+  @Test
+  public void testDecompressionNotSupported() throws Exception {
+    Buffer compressed = compress(Buffer.buffer("hello"), true);
+    router.route().handler(rc -> {
+      assertEquals(compressed, rc.getBody());
+      assertEquals("gzip", rc.request().getHeader(HttpHeaders.CONTENT_ENCODING));
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.putHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(compressed.length()));
+      req.write(compressed);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testStreamingGzipBody() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setStreaming(true).setDecompressionSupported(true));
+    Buffer buff = Buffer.buffer(TestUtils.randomAlphaString(100000));
+    router.route().handler(rc -> {
+      Buffer received = Buffer.buffer();
+      rc.getBodyStream()
+        .handler(received::appendBuffer)
+        .endHandler(v -> {
+          assertEquals(buff, received);
+          rc.response().end();
+        });
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.putHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      req.setChunked(true);
+      req.write(compress(buff, true));
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testRouteBodyLimit() throws Exception {
+    router.route("/small").setBodyOptions(new BodyOptions().setBodyLimit(100L)).handler(rc -> rc.response().end());
+    router.route("/large").handler(rc -> {
+      assertEquals(1000, rc.getBody().length());
+      rc.response().end();
+    });
+    Buffer buff = TestUtils.randomBuffer(1000);
+    testRequest(HttpMethod.POST, "/large", req -> {
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, "1000");
+      req.write(buff);
+    }, 200, "OK", null);
+    testRequest(HttpMethod.POST, "/small", req -> {
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, "1000");
+      req.write(buff);
+    }, 413, "Request Entity Too Large", null);
+  }
+
+  @Test
+  public void testRouteBodyOptionsMethod() throws Exception {
+    // the options of a route not matching the request method do not apply
+    router.post("/path").setBodyOptions(new BodyOptions().setBodyLimit(100L)).handler(rc -> rc.response().end());
+    router.put("/path").handler(rc -> {
+      assertEquals(1000, rc.getBody().length());
+      rc.response().end();
+    });
+    testRequest(HttpMethod.PUT, "/path", req -> {
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, "1000");
+      req.write(TestUtils.randomBuffer(1000));
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testRouteBodyOptionsMatch() throws Exception {
+    Buffer buff = TestUtils.randomBuffer(1000);
+    router.post("/items/:id/photo").setBodyOptions(new BodyOptions().setBodyLimit(100L)).handler(rc -> rc.response().end());
+    router.postWithRegex("/files/\\d+").setBodyOptions(new BodyOptions().setBodyLimit(100L)).handler(rc -> rc.response().end());
+    router.post("/files/:name").handler(rc -> {
+      // the params of the routes checked for their options are not kept
+      assertEquals("abc", rc.pathParam("name"));
+      assertNull(rc.pathParam("param0"));
+      assertEquals(1000, rc.getBody().length());
+      rc.response().end();
+    });
+    // the options of a route not consuming the content type do not apply
+    router.post("/json").consumes("application/json").setBodyOptions(new BodyOptions().setBodyLimit(100L)).handler(rc -> rc.response().end());
+    router.post("/json").handler(rc -> {
+      assertEquals(1000, rc.getBody().length());
+      rc.response().end();
+    });
+
+    testRequest(HttpMethod.POST, "/items/42/photo", req -> {
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, "1000");
+      req.write(buff);
+    }, 413, "Request Entity Too Large", null);
+    testRequest(HttpMethod.POST, "/files/123", req -> {
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, "1000");
+      req.write(buff);
+    }, 413, "Request Entity Too Large", null);
+    testRequest(HttpMethod.POST, "/files/abc", req -> {
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, "1000");
+      req.write(buff);
+    }, 200, "OK", null);
+    testRequest(HttpMethod.POST, "/json", req -> {
+      req.putHeader(HttpHeaders.CONTENT_TYPE, "text/plain");
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, "1000");
+      req.write(buff);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testRouteStreaming() throws Exception {
+    Buffer buff = TestUtils.randomBuffer(10000);
+    router.route("/stream").setBodyOptions(new BodyOptions().setStreaming(true)).handler(rc -> {
+      assertNull(rc.getBody());
+      Buffer received = Buffer.buffer();
+      rc.getBodyStream()
+        .handler(received::appendBuffer)
+        .endHandler(v -> {
+          assertEquals(buff, received);
+          rc.response().end();
+        });
+    });
+    router.route("/buffer").handler(rc -> {
+      assertNull(rc.getBodyStream());
+      assertEquals(buff, rc.getBody());
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/stream", req -> {
+      req.setChunked(true);
+      req.write(buff);
+    }, 200, "OK", null);
+    testRequest(HttpMethod.POST, "/buffer", req -> {
+      req.setChunked(true);
+      req.write(buff);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testRouteHandleFileUploads() throws Exception {
+    router.route().setBodyOptions(new BodyOptions().setHandleFileUploads(false)).handler(rc -> {
+      assertEquals(0, rc.fileUploads().size());
+      rc.response().end();
+    });
+    sendFileUploadRequest(TestUtils.randomBuffer(50), 200, "OK");
+  }
+
+  @Test
+  public void testRouteBodyOptionsCopied() {
+    BodyOptions options = new BodyOptions().setBodyLimit(100L);
+    Route route = router.route().setBodyOptions(options);
+    options.setBodyLimit(200L);
+    assertEquals(100L, (long) route.getBodyOptions().getBodyLimit());
+    assertNull(route.getBodyOptions().getStreaming());
+    assertNull(router.route().getBodyOptions());
+  }
+
+  private static Buffer compress(Buffer buff, boolean gzip) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (OutputStream compressor = gzip ? new GZIPOutputStream(out) : new DeflaterOutputStream(out)) {
+      compressor.write(buff.getBytes());
+    }
+    return Buffer.buffer(out.toByteArray());
+  }
+
   private String getNotCreatedTemporaryFolderName() throws IOException
   {
     File dir = tempUploads.newFolder();
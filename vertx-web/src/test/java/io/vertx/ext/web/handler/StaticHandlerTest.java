@@ -25,14 +25,25 @@ import io.vertx.ext.web.Http2PushMapping;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.WebTestBase;
 import io.vertx.ext.web.impl.Utils;
+import org.junit.Assume;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -781,6 +792,132 @@ public class StaticHandlerTest extends WebTestBase {
     await();
   }
 
+  @Test
+  public void testSuffixRange() throws Exception {
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=-783"), res -> {
+      assertEquals("783", res.headers().get("Content-Length"));
+      assertEquals("bytes 15000-15782/15783", res.headers().get("Content-Range"));
+    }, 206, "Partial Content", null);
+  }
+
+  @Test
+  public void testMultipleRanges() throws Exception {
+    String contentType = "text/html;charset=" + Charset.defaultCharset().name();
+    testRequest(HttpMethod.GET, "/otherpage.html", req -> req.headers().set("Range", "bytes=-7, 0-5"), res -> {
+      String multipart = res.headers().get("Content-Type");
+      assertTrue(multipart.startsWith("multipart/byteranges; boundary="));
+      String boundary = multipart.substring("multipart/byteranges; boundary=".length());
+      String expected =
+        "--" + boundary + "\r\n" +
+        "Content-Type: " + contentType + "\r\n" +
+        "Content-Range: bytes 0-5/36\r\n" +
+        "\r\n" +
+        "<html>\r\n" +
+        "--" + boundary + "\r\n" +
+        "Content-Type: " + contentType + "\r\n" +
+        "Content-Range: bytes 29-35/36\r\n" +
+        "\r\n" +
+        "</html>\r\n" +
+        "--" + boundary + "--\r\n";
+      assertEquals(Integer.toString(expected.length()), res.headers().get("Content-Length"));
+      assertNull(res.headers().get("Content-Range"));
+      res.bodyHandler(body -> {
+        assertEquals(expected, body.toString());
+        testComplete();
+      });
+    }, 206, "Partial Content", null);
+    await();
+  }
+
+  @Test
+  public void testMultipleRangesLargeFile() throws Exception {
+    byte[] expected = Files.readAllBytes(new File("src/test/resources/webroot/somedir/range.jpg").toPath());
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=0-9,100-"), res -> res.bodyHandler(body -> {
+      assertEquals(Long.parseLong(res.headers().get("Content-Length")), body.length());
+      String content = body.toString("ISO-8859-1");
+      assertTrue(content.contains("Content-Range: bytes 0-9/15783\r\n"));
+      assertTrue(content.contains("Content-Range: bytes 100-15782/15783\r\n"));
+      assertTrue(content.contains(new String(expected, 100, expected.length - 100, StandardCharsets.ISO_8859_1)));
+      testComplete();
+    }), 206, "Partial Content", null);
+    await();
+  }
+
+  private static boolean isOpen(File file) throws IOException {
+    try (Stream<Path> fds = Files.list(Paths.get("/proc/self/fd"))) {
+      return fds.anyMatch(fd -> {
+        try {
+          return Files.readSymbolicLink(fd).equals(file.toPath());
+        } catch (IOException e) {
+          // closed meanwhile
+          return false;
+        }
+      });
+    }
+  }
+
+  @Test
+  public void testMultipleRangesAborted() throws Exception {
+    // the open files are listed by the proc file system
+    Assume.assumeTrue(new File("/proc/self/fd").isDirectory());
+    router.clear();
+    File file = File.createTempFile("vertx", ".bin").getCanonicalFile();
+    file.deleteOnExit();
+    Files.write(file.toPath(), new byte[16 * 1024 * 1024]);
+    stat = StaticHandler.create().setAllowRootFileSystemAccess(true).setWebRoot(file.getParent());
+    // the handlers of the response set by the application are kept
+    AtomicBoolean closed = new AtomicBoolean();
+    router.route().handler(rc -> {
+      rc.response().closeHandler(v -> closed.set(true));
+      rc.next();
+    });
+    router.route().handler(stat);
+
+    AtomicLong received = new AtomicLong();
+    HttpClientRequest req = client.request(HttpMethod.GET, 8080, "localhost", "/" + file.getName(), onSuccess(resp -> {
+      assertEquals(206, resp.statusCode());
+      resp.handler(buff -> {
+        // abort the download while the server is still writing the ranges
+        if (received.addAndGet(buff.length()) > 1024 * 1024 && received.get() - buff.length() <= 1024 * 1024) {
+          resp.request().connection().close();
+        }
+      });
+    }));
+    req.putHeader("Range", "bytes=0-9,100-");
+    req.end();
+    waitUntil(() -> received.get() > 1024 * 1024);
+    waitUntil(() -> {
+      try {
+        return !isOpen(file);
+      } catch (IOException e) {
+        throw new AssertionError(e);
+      }
+    });
+    waitUntil(closed::get);
+    assertTrue(received.get() < file.length());
+  }
+
+  @Test
+  public void testCoalescedRanges() throws Exception {
+    testRequest(HttpMethod.GET, "/otherpage.html", req -> req.headers().set("Range", "bytes=6-11,0-5"), res -> {
+      assertEquals("bytes 0-11/36", res.headers().get("Content-Range"));
+    }, 206, "Partial Content", "<html><body>");
+  }
+
+  @Test
+  public void testInvalidRangeIgnored() throws Exception {
+    testRequest(HttpMethod.GET, "/otherpage.html", req -> req.headers().set("Range", "bytes=11-6"), null, 200, "OK", "<html><body>Other page</body></html>");
+    testRequest(HttpMethod.GET, "/otherpage.html", req -> req.headers().set("Range", "lines=1-2"), null, 200, "OK", "<html><body>Other page</body></html>");
+  }
+
+  @Test
+  public void testHeadRangeIgnored() throws Exception {
+    testRequest(HttpMethod.HEAD, "/otherpage.html", req -> req.headers().set("Range", "bytes=0-5"), res -> {
+      assertEquals("36", res.headers().get("Content-Length"));
+      assertNull(res.headers().get("Content-Range"));
+    }, 200, "OK", null);
+  }
+
   @Test
   public void testContentTypeSupport() throws Exception {
     testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> {
@@ -830,6 +967,265 @@ public class StaticHandlerTest extends WebTestBase {
     stat = StaticHandler.create().setWebRoot(file.getParent());
   }
 
+  @Test
+  public void testContentCache() throws Exception {
+    stat.setMaxCachedFileSize(1024);
+    for (int i = 0; i < 3; i++) {
+      testRequest(HttpMethod.GET, "/otherpage.html", null, res -> {
+        assertEquals("text/html;charset=" + Charset.defaultCharset().name(), res.headers().get("Content-Type"));
+        assertEquals("36", res.headers().get("Content-Length"));
+      }, 200, "OK", "<html><body>Other page</body></html>");
+    }
+    CacheMetrics metrics = stat.contentCacheMetrics();
+    assertEquals(1, metrics.getSize());
+    assertEquals(1, metrics.getMisses());
+    assertEquals(2, metrics.getHits());
+    // a range is sent from the file system
+    testRequest(HttpMethod.GET, "/otherpage.html", req -> req.headers().set("Range", "bytes=6-11"), null, 206, "Partial Content", "<body>");
+    testRequest(HttpMethod.HEAD, "/otherpage.html", null, res -> assertEquals("36", res.headers().get("Content-Length")), 200, "OK", null);
+  }
+
+  @Test
+  public void testContentCacheLargeFile() throws Exception {
+    stat.setMaxCachedFileSize(1024);
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", null, res -> res.bodyHandler(buff -> {
+      assertEquals(15783, buff.length());
+      testComplete();
+    }), 200, "OK", null);
+    await();
+  }
+
+  @Test
+  public void testContentCacheSmallerThanFile() throws Exception {
+    stat.setMaxCachedFileSize(1024).setContentCacheSize(16);
+    testRequest(HttpMethod.GET, "/otherpage.html", 200, "OK", "<html><body>Other page</body></html>");
+    testRequest(HttpMethod.GET, "/otherpage.html", 200, "OK", "<html><body>Other page</body></html>");
+  }
+
+  @Test
+  public void testContentCacheFileModified() throws Exception {
+    router.clear();
+    File file = File.createTempFile("vertx", ".txt");
+    file.deleteOnExit();
+    Files.write(file.toPath(), "foo".getBytes());
+    stat = StaticHandler.create()
+      .setAllowRootFileSystemAccess(true)
+      .setWebRoot(file.getParent())
+      .setCachingEnabled(false)
+      .setMaxCachedFileSize(1024);
+    router.route().handler(stat);
+    testRequest(HttpMethod.GET, "/" + file.getName(), 200, "OK", "foo");
+    testRequest(HttpMethod.GET, "/" + file.getName(), 200, "OK", "foo");
+    // the cached content does not match the new props of the file
+    Files.write(file.toPath(), "foobar".getBytes());
+    testRequest(HttpMethod.GET, "/" + file.getName(), 200, "OK", "foobar");
+    assertEquals(1, stat.contentCacheMetrics().getHits());
+    assertEquals(2, stat.contentCacheMetrics().getMisses());
+  }
+
+  @Test
+  public void testPropsCacheMetrics() throws Exception {
+    stat.setCachingEnabled(true);
+    for (int i = 0; i < 3; i++) {
+      testRequest(HttpMethod.GET, "/otherpage.html", 200, "OK", "<html><body>Other page</body></html>");
+    }
+    CacheMetrics metrics = stat.propsCacheMetrics();
+    assertEquals(1, metrics.getSize());
+    assertEquals(1, metrics.getMisses());
+    assertEquals(2, metrics.getHits());
+    assertEquals(0, metrics.getEvictions());
+
+    stat.setCachingEnabled(false);
+    assertEquals(0, stat.propsCacheMetrics().getSize());
+    assertEquals(0, stat.propsCacheMetrics().getHits());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testContentCacheInvalidSize() {
+    stat.setContentCacheSize(0);
+  }
+
+  private File precompressedWebRoot() throws Exception {
+    router.clear();
+    File dir = Files.createTempDirectory("vertx").toFile();
+    dir.deleteOnExit();
+    for (String name : Arrays.asList("app.js", "app.js.gz", "app.js.br", "style.css", "style.css.gz")) {
+      File file = new File(dir, name);
+      file.deleteOnExit();
+      // the content tells which file is sent, the client does not decode it
+      Files.write(file.toPath(), name.getBytes());
+    }
+    stat = StaticHandler.create()
+      .setAllowRootFileSystemAccess(true)
+      .setWebRoot(dir.getAbsolutePath())
+      .setSendPrecompressed(true);
+    router.route().handler(stat);
+    return dir;
+  }
+
+  @Test
+  public void testSendPrecompressed() throws Exception {
+    precompressedWebRoot();
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "gzip, deflate, br"), res -> {
+      assertEquals("br", res.headers().get("Content-Encoding"));
+      assertEquals("accept-encoding", res.headers().get("Vary"));
+      assertTrue(res.headers().get("Content-Type").startsWith("application/javascript"));
+      assertEquals("9", res.headers().get("Content-Length"));
+    }, 200, "OK", "app.js.br");
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "gzip"), res -> {
+      assertEquals("gzip", res.headers().get("Content-Encoding"));
+    }, 200, "OK", "app.js.gz");
+    testRequest(HttpMethod.GET, "/style.css", req -> req.putHeader("Accept-Encoding", "br, gzip"), res -> {
+      assertEquals("gzip", res.headers().get("Content-Encoding"));
+      assertTrue(res.headers().get("Content-Type").startsWith("text/css"));
+    }, 200, "OK", "style.css.gz");
+    testRequest(HttpMethod.HEAD, "/app.js", req -> req.putHeader("Accept-Encoding", "gzip"), res -> {
+      assertEquals("gzip", res.headers().get("Content-Encoding"));
+      assertEquals("9", res.headers().get("Content-Length"));
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testSendPrecompressedNegotiation() throws Exception {
+    precompressedWebRoot();
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "br;q=0.5, gzip"), res -> {
+      assertEquals("gzip", res.headers().get("Content-Encoding"));
+    }, 200, "OK", "app.js.gz");
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "*, br;q=0"), res -> {
+      assertEquals("gzip", res.headers().get("Content-Encoding"));
+    }, 200, "OK", "app.js.gz");
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "identity, gzip;q=0.5"), res -> {
+      assertNull(res.headers().get("Content-Encoding"));
+    }, 200, "OK", "app.js");
+    testRequest(HttpMethod.GET, "/app.js", null, res -> {
+      assertNull(res.headers().get("Content-Encoding"));
+    }, 200, "OK", "app.js");
+    // ranges apply to the original file
+    testRequest(HttpMethod.GET, "/app.js", req -> {
+      req.putHeader("Accept-Encoding", "gzip");
+      req.putHeader("Range", "bytes=0-2");
+    }, res -> {
+      assertNull(res.headers().get("Content-Encoding"));
+    }, 206, "Partial Content", "app");
+  }
+
+  @Test
+  public void testSendPrecompressedOutOfDate() throws Exception {
+    File dir = precompressedWebRoot();
+    File file = new File(dir, "app.js");
+    file.setLastModified(new File(dir, "app.js.gz").lastModified() + 10000);
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "gzip"), res -> {
+      assertNull(res.headers().get("Content-Encoding"));
+    }, 200, "OK", "app.js");
+  }
+
+  @Test
+  public void testSendPrecompressedDisabled() throws Exception {
+    precompressedWebRoot();
+    stat.setSendPrecompressed(false);
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "gzip"), res -> {
+      assertNull(res.headers().get("Content-Encoding"));
+    }, 200, "OK", "app.js");
+  }
+
+  private static String etag(String file) throws Exception {
+    byte[] digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(new File(file).toPath()));
+    return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + '"';
+  }
+
+  /**
+   * The etag of a file is computed in the background, the file is sent without it until it is known.
+   */
+  private String awaitETag(String path, Consumer<HttpClientRequest> requestAction) throws Exception {
+    AtomicReference<String> etag = new AtomicReference<>();
+    for (int i = 0; i < 100 && etag.get() == null; i++) {
+      if (i > 0) {
+        Thread.sleep(10);
+      }
+      testRequest(HttpMethod.GET, path, requestAction, res -> etag.set(res.headers().get("ETag")), 200, "OK", null);
+    }
+    assertNotNull(etag.get());
+    return etag.get();
+  }
+
+  @Test
+  public void testETag() throws Exception {
+    stat.setSendETag(true);
+    String etag = etag("src/test/resources/webroot/otherpage.html");
+    assertEquals(etag, awaitETag("/otherpage.html", null));
+    testRequest(HttpMethod.GET, "/otherpage.html", null, res -> {
+      assertEquals(etag, res.headers().get("ETag"));
+    }, 200, "OK", "<html><body>Other page</body></html>");
+    testRequest(HttpMethod.GET, "/otherpage.html", req -> req.putHeader("If-None-Match", etag), res -> {
+      assertEquals(etag, res.headers().get("ETag"));
+    }, 304, "Not Modified", null);
+    testRequest(HttpMethod.GET, "/otherpage.html", req -> req.putHeader("If-None-Match", "\"foo\", W/" + etag), null, 304, "Not Modified", null);
+    testRequest(HttpMethod.GET, "/otherpage.html", req -> req.putHeader("If-None-Match", "\"foo\""), null, 200, "OK", "<html><body>Other page</body></html>");
+  }
+
+  @Test
+  public void testETagKeptWhenPropsAreRefreshed() throws Exception {
+    stat.setSendETag(true).setFilesReadOnly(false).setCacheEntryTimeout(100);
+    String etag = awaitETag("/otherpage.html", null);
+    Thread.sleep(101);
+    // the file was not modified, the hash is not computed again
+    testRequest(HttpMethod.GET, "/otherpage.html", null, res -> {
+      assertEquals(etag, res.headers().get("ETag"));
+    }, 200, "OK", "<html><body>Other page</body></html>");
+  }
+
+  @Test
+  public void testETagNotSentByDefault() throws Exception {
+    testRequest(HttpMethod.GET, "/otherpage.html", null, res -> {
+      assertNull(res.headers().get("ETag"));
+    }, 200, "OK", "<html><body>Other page</body></html>");
+  }
+
+  @Test
+  public void testIfRange() throws Exception {
+    stat.setSendETag(true);
+    String etag = etag("src/test/resources/webroot/otherpage.html");
+    assertEquals(etag, awaitETag("/otherpage.html", null));
+    AtomicReference<String> lastModified = new AtomicReference<>();
+    testRequest(HttpMethod.GET, "/otherpage.html", null, res -> lastModified.set(res.headers().get("Last-Modified")), 200, "OK", "<html><body>Other page</body></html>");
+    testRequest(HttpMethod.GET, "/otherpage.html", req -> {
+      req.putHeader("Range", "bytes=6-11");
+      req.putHeader("If-Range", etag);
+    }, null, 206, "Partial Content", "<body>");
+    testRequest(HttpMethod.GET, "/otherpage.html", req -> {
+      req.putHeader("Range", "bytes=6-11");
+      req.putHeader("If-Range", lastModified.get());
+    }, null, 206, "Partial Content", "<body>");
+    // the file was modified, the whole file is sent
+    testRequest(HttpMethod.GET, "/otherpage.html", req -> {
+      req.putHeader("Range", "bytes=6-11");
+      req.putHeader("If-Range", "\"foo\"");
+    }, null, 200, "OK", "<html><body>Other page</body></html>");
+    testRequest(HttpMethod.GET, "/otherpage.html", req -> {
+      req.putHeader("Range", "bytes=6-11");
+      req.putHeader("If-Range", "W/" + etag);
+    }, null, 200, "OK", "<html><body>Other page</body></html>");
+  }
+
+  @Test
+  public void testETagPrecompressed() throws Exception {
+    File dir = precompressedWebRoot();
+    stat.setSendETag(true);
+    String etag = etag(new File(dir, "app.js").getPath());
+    String gzipETag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+    assertEquals(gzipETag, awaitETag("/app.js", req -> req.putHeader("Accept-Encoding", "gzip")));
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "gzip"), res -> {
+      assertEquals(gzipETag, res.headers().get("ETag"));
+    }, 200, "OK", "app.js.gz");
+    testRequest(HttpMethod.GET, "/app.js", null, res -> {
+      assertEquals(etag, res.headers().get("ETag"));
+    }, 200, "OK", "app.js");
+    testRequest(HttpMethod.GET, "/app.js", req -> {
+      req.putHeader("Accept-Encoding", "gzip");
+      req.putHeader("If-None-Match", gzipETag);
+    }, null, 304, "Not Modified", null);
+  }
+
   @Test
   public void testLastModifiedInGMT() throws Exception {
     testRequest(HttpMethod.GET, "/otherpage.html", null, res -> {
@@ -0,0 +1,55 @@
+package io.vertx.ext.web.handler.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.test.core.TestUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class BodyDecoderTest {
+
+  private static Buffer gzip(byte[] bytes, int times) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      for (int i = 0; i < times; i++) {
+        gzip.write(bytes);
+      }
+    }
+    return Buffer.buffer(out.toByteArray());
+  }
+
+  @Test
+  public void testDecode() throws IOException {
+    Buffer body = TestUtils.randomBuffer(100000);
+    Buffer decoded = Buffer.buffer();
+    BodyDecoder decoder = BodyDecoder.create("gzip", body.length());
+    decoder.decode(gzip(body.getBytes(), 1), decoded::appendBuffer);
+    decoder.end(decoded::appendBuffer);
+    assertEquals(body, decoded);
+  }
+
+  @Test
+  public void testDecodeStopsAtLimit() throws IOException {
+    // 64KB inflating to 64MB, in a single chunk
+    Buffer bomb = gzip(new byte[1024 * 1024], 64);
+    assertTrue(bomb.length() < 100000);
+    long[] decoded = new long[2];
+    BodyDecoder decoder = BodyDecoder.create("gzip", 10000);
+    try {
+      decoder.decode(bomb, buff -> {
+        decoded[0] += buff.length();
+        decoded[1] = Math.max(decoded[1], buff.length());
+      });
+      fail("Should exceed the limit");
+    } catch (HttpStatusException e) {
+      assertEquals(413, e.getStatusCode());
+    }
+    // nothing past the limit is handed over, and a single slice is inflated at a time
+    assertTrue(decoded[0] <= 10000);
+    assertTrue(decoded[1] <= BodyDecoder.SLICE_SIZE * 1032);
+  }
+}
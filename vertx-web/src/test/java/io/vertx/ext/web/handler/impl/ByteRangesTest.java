@@ -0,0 +1,96 @@
+package io.vertx.ext.web.handler.impl;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ByteRangesTest {
+
+  private static void assertRanges(String header, long size, long... positions) {
+    List<ByteRanges.Range> ranges = ByteRanges.parse(header, size);
+    assertNotNull(ranges);
+    assertEquals(positions.length / 2, ranges.size());
+    for (int i = 0; i < ranges.size(); i++) {
+      assertEquals(positions[2 * i], ranges.get(i).start);
+      assertEquals(positions[2 * i + 1], ranges.get(i).end);
+    }
+  }
+
+  @Test
+  public void testSingle() {
+    assertRanges("bytes=0-499", 1000, 0, 499);
+    assertRanges("bytes=500-", 1000, 500, 999);
+    assertRanges("bytes=500-5000", 1000, 500, 999);
+    assertRanges("BYTES=10-19", 1000, 10, 19);
+  }
+
+  @Test
+  public void testSuffix() {
+    assertRanges("bytes=-100", 1000, 900, 999);
+    assertRanges("bytes=-5000", 1000, 0, 999);
+    // a suffix range of nothing is not satisfiable
+    assertRanges("bytes=-0", 1000);
+    assertRanges("bytes=-10", 0);
+  }
+
+  @Test
+  public void testMultiple() {
+    assertRanges("bytes=0-9, 20-29,-10", 1000, 0, 9, 20, 29, 990, 999);
+    // sorted
+    assertRanges("bytes=20-29,0-9", 1000, 0, 9, 20, 29);
+    // empty elements
+    assertRanges("bytes=,0-9,,20-29,", 1000, 0, 9, 20, 29);
+    // the unsatisfiable ranges are dropped
+    assertRanges("bytes=0-9,2000-2999", 1000, 0, 9);
+  }
+
+  @Test
+  public void testCoalesce() {
+    assertRanges("bytes=0-9,5-19", 1000, 0, 19);
+    assertRanges("bytes=0-9,10-19", 1000, 0, 19);
+    assertRanges("bytes=0-99,10-19", 1000, 0, 99);
+    assertRanges("bytes=-100,0-", 1000, 0, 999);
+  }
+
+  @Test
+  public void testNotSatisfiable() {
+    assertTrue(ByteRanges.parse("bytes=1000-", 1000).isEmpty());
+    assertTrue(ByteRanges.parse("bytes=1000-2000,3000-", 1000).isEmpty());
+  }
+
+  @Test
+  public void testInvalid() {
+    assertNull(ByteRanges.parse("items=0-9", 1000));
+    assertNull(ByteRanges.parse("bytes 0-9", 1000));
+    assertNull(ByteRanges.parse("bytes=", 1000));
+    assertNull(ByteRanges.parse("bytes=,", 1000));
+    assertNull(ByteRanges.parse("bytes=9-0", 1000));
+    assertNull(ByteRanges.parse("bytes=a-9", 1000));
+    assertNull(ByteRanges.parse("bytes=0-+9", 1000));
+    assertNull(ByteRanges.parse("bytes=-", 1000));
+    assertNull(ByteRanges.parse("bytes=10", 1000));
+    assertNull(ByteRanges.parse("bytes=0-9,foo", 1000));
+    assertNull(ByteRanges.parse("bytes=99999999999999999999-", 1000));
+  }
+
+  @Test
+  public void testTooManyRanges() {
+    StringBuilder header = new StringBuilder("bytes=");
+    for (int i = 0; i <= ByteRanges.MAX_RANGES; i++) {
+      header.append(i * 10).append('-').append(i * 10 + 1).append(',');
+    }
+    assertNull(ByteRanges.parse(header.toString(), 10000));
+  }
+
+  @Test
+  public void testMultipart() {
+    ByteRanges multipart = ByteRanges.multipart(ByteRanges.parse("bytes=0-5,-7", 36), "text/html", 36);
+    String boundary = multipart.contentType().substring("multipart/byteranges; boundary=".length());
+    assertEquals("--" + boundary + "\r\nContent-Type: text/html\r\nContent-Range: bytes 0-5/36\r\n\r\n", multipart.partHeader(0).toString());
+    assertEquals("\r\n--" + boundary + "\r\nContent-Type: text/html\r\nContent-Range: bytes 29-35/36\r\n\r\n", multipart.partHeader(1).toString());
+    assertEquals("\r\n--" + boundary + "--\r\n", multipart.trailer().toString());
+    assertEquals(multipart.partHeader(0).length() + 6 + multipart.partHeader(1).length() + 7 + multipart.trailer().length(), multipart.contentLength());
+  }
+}
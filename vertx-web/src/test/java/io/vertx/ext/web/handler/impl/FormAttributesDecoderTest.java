@@ -0,0 +1,81 @@
+package io.vertx.ext.web.handler.impl;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class FormAttributesDecoderTest {
+
+  private static MultiMap decode(int maxAttributeSize, int maxAttributes, String... chunks) {
+    MultiMap attributes = MultiMap.caseInsensitiveMultiMap();
+    FormAttributesDecoder decoder = new FormAttributesDecoder(attributes, StandardCharsets.UTF_8, maxAttributeSize, maxAttributes);
+    for (String chunk : chunks) {
+      decoder.decode(Buffer.buffer(chunk));
+    }
+    decoder.end();
+    return attributes;
+  }
+
+  @Test
+  public void testDecode() {
+    MultiMap attributes = decode(-1, -1, "origin=junit&login=admin%40foo.bar&pass+word=admin&flag&&empty=");
+    assertEquals(5, attributes.size());
+    assertEquals("junit", attributes.get("origin"));
+    assertEquals("admin@foo.bar", attributes.get("login"));
+    assertEquals("admin", attributes.get("pass word"));
+    assertEquals("", attributes.get("flag"));
+    assertEquals("", attributes.get("empty"));
+  }
+
+  @Test
+  public void testDecodeChunks() {
+    MultiMap attributes = decode(-1, -1, "a=1&b", "=2", "2&c=%E", "2%82%AC", "&", "d=4");
+    assertEquals(4, attributes.size());
+    assertEquals("1", attributes.get("a"));
+    assertEquals("22", attributes.get("b"));
+    assertEquals("€", attributes.get("c"));
+    assertEquals("4", attributes.get("d"));
+  }
+
+  @Test
+  public void testMultiValued() {
+    MultiMap attributes = decode(-1, -1, "a=1&a=2");
+    assertEquals(2, attributes.getAll("a").size());
+  }
+
+  @Test
+  public void testAttributeTooLarge() {
+    assertEquals(1, decode(5, -1, "a=123").size());
+    try {
+      decode(5, -1, "a=1", "234");
+      fail();
+    } catch (HttpStatusException e) {
+      assertEquals(413, e.getStatusCode());
+    }
+  }
+
+  @Test
+  public void testTooManyAttributes() {
+    assertEquals(2, decode(-1, 2, "a=1&b=2").size());
+    try {
+      decode(-1, 2, "a=1&b=2&", "c=3");
+      fail();
+    } catch (HttpStatusException e) {
+      assertEquals(413, e.getStatusCode());
+    }
+  }
+
+  @Test
+  public void testMalformed() {
+    try {
+      decode(-1, -1, "a=%zz");
+      fail();
+    } catch (HttpStatusException e) {
+      assertEquals(400, e.getStatusCode());
+    }
+  }
+}
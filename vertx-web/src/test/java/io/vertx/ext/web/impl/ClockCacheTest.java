@@ -0,0 +1,145 @@
+package io.vertx.ext.web.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class ClockCacheTest {
+
+  @Test
+  public void testGetPut() {
+    ClockCache<String, String> cache = new ClockCache<>(10);
+    assertNull(cache.get("foo"));
+    cache.put("foo", "bar");
+    assertEquals("bar", cache.get("foo"));
+    cache.put("foo", "baz");
+    assertEquals("baz", cache.get("foo"));
+    assertEquals(1, cache.size());
+    cache.remove("foo");
+    assertNull(cache.get("foo"));
+    assertEquals(0, cache.size());
+    assertEquals(2, cache.hits());
+    assertEquals(2, cache.misses());
+  }
+
+  @Test
+  public void testBounded() {
+    ClockCache<Integer, Integer> cache = new ClockCache<>(10);
+    for (int i = 0; i < 100; i++) {
+      cache.put(i, i);
+      assertTrue(cache.size() <= 10);
+    }
+    assertEquals(90, cache.evictions());
+    // the last entries are kept
+    for (int i = 90; i < 100; i++) {
+      assertEquals(i, (int) cache.get(i));
+    }
+  }
+
+  @Test
+  public void testSecondChance() {
+    ClockCache<Integer, Integer> cache = new ClockCache<>(3);
+    cache.put(0, 0);
+    cache.put(1, 1);
+    cache.put(2, 2);
+    // the oldest entry is read, the next one is evicted instead
+    cache.get(0);
+    cache.put(3, 3);
+    assertEquals(0, (int) cache.get(0));
+    assertNull(cache.get(1));
+    assertEquals(2, (int) cache.get(2));
+    assertEquals(3, (int) cache.get(3));
+  }
+
+  @Test
+  public void testWeighted() {
+    ClockCache<Integer, String> cache = new ClockCache<>(10, String::length);
+    cache.put(0, "aaaa");
+    cache.put(1, "bbbb");
+    assertEquals(8, cache.weight());
+    // the oldest entry is evicted to make room
+    cache.put(2, "cccc");
+    assertEquals(8, cache.weight());
+    assertEquals(2, cache.size());
+    assertNull(cache.get(0));
+    // a replaced entry only counts its new weight
+    cache.put(1, "b");
+    assertEquals(5, cache.weight());
+    cache.remove(2);
+    assertEquals(1, cache.weight());
+    assertEquals(1, cache.evictions());
+  }
+
+  @Test
+  public void testCheck() {
+    ClockCache<String, String> cache = new ClockCache<>(10);
+    cache.put("foo", "bar");
+    assertEquals("bar", cache.get("foo", "bar"::equals));
+    assertNull(cache.get("foo", "baz"::equals));
+    assertEquals(1, cache.hits());
+    assertEquals(1, cache.misses());
+    // the value failing the check stays cached
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testPeek() {
+    ClockCache<String, String> cache = new ClockCache<>(10);
+    assertNull(cache.peek("foo"));
+    cache.put("foo", "bar");
+    assertEquals("bar", cache.peek("foo"));
+    assertEquals(0, cache.hits());
+    assertEquals(0, cache.misses());
+  }
+
+  @Test
+  public void testRemovedNodesAreDropped() {
+    ClockCache<Integer, Integer> cache = new ClockCache<>(10);
+    // replacing and removing never fills the cache
+    for (int i = 0; i < 1000; i++) {
+      cache.put(i % 5, i);
+      if (i % 2 == 0) {
+        cache.remove(i % 5);
+      }
+    }
+    assertTrue(cache.size() <= 5);
+    assertEquals(0, cache.evictions());
+  }
+
+  @Test
+  public void testConcurrent() throws Exception {
+    ClockCache<Integer, Integer> cache = new ClockCache<>(100);
+    int threads = 4;
+    CountDownLatch latch = new CountDownLatch(threads);
+    List<Throwable> failures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int seed = t;
+      new Thread(() -> {
+        try {
+          for (int i = 0; i < 100_000; i++) {
+            int key = (i * 31 + seed) % 1000;
+            Integer value = cache.get(key);
+            if (value != null) {
+              assertEquals(key, (int) value);
+            } else {
+              cache.put(key, key);
+            }
+          }
+        } catch (Throwable e) {
+          synchronized (failures) {
+            failures.add(e);
+          }
+        } finally {
+          latch.countDown();
+        }
+      }).start();
+    }
+    latch.await();
+    assertEquals(new ArrayList<>(), failures);
+    assertTrue(cache.size() <= 100 + threads);
+  }
+}
@@ -45,4 +45,35 @@ public class HeaderParserTest {
     assertEquals(3, headers.size());
   }
 
+  @Test
+  public void testWeight() {
+    assertEquals(0.5f, new ParsableHeaderValue("gzip;q=0.5").weight(), 0f);
+    assertEquals(1f, new ParsableHeaderValue("gzip;Q=1").weight(), 0f);
+    assertEquals(0.001f, new ParsableHeaderValue("gzip;q=0.001").weight(), 0f);
+    assertEquals(0.25f, new ParsableHeaderValue("gzip;q=0.25;level=1").weight(), 0f);
+    assertEquals(0.1234f, new ParsableHeaderValue("gzip;q=0.1234").weight(), 0f);
+    assertEquals(1f, new ParsableHeaderValue("gzip;q=abc").weight(), 0f);
+    assertEquals(1f, new ParsableHeaderValue("gzip;q=").weight(), 0f);
+    assertEquals("1", new ParsableHeaderValue("gzip;q=0.5;level=1").parameter("level"));
+  }
+
+  @Test
+  public void testSort() {
+    List<ParsableMIMEValue> headers = HeaderParser.sort(HeaderParser.convertToParsedHeaderValues(
+      "text/plain;q=0.5, text/html, */*;q=0.1, application/json, text/*;q=0.5", ParsableMIMEValue::new));
+
+    assertEquals(5, headers.size());
+    assertEquals("text/html", headers.get(0).rawValue());
+    assertEquals("application/json", headers.get(1).rawValue());
+    assertEquals("text/plain;q=0.5", headers.get(2).rawValue());
+    assertEquals("text/*;q=0.5", headers.get(3).rawValue());
+    assertEquals("*/*;q=0.1", headers.get(4).rawValue());
+  }
+
+  @Test
+  public void testLanguageValue() {
+    assertEquals(3, HeaderParser.parseLanguageValue("en-US-x-y").size());
+    assertEquals("US", HeaderParser.parseLanguageValue("en_US").get(1));
+    assertTrue(HeaderParser.parseLanguageValue(null).isEmpty());
+  }
 }
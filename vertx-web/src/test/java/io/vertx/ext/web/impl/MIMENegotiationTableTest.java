@@ -0,0 +1,67 @@
+package io.vertx.ext.web.impl;
+
+import io.vertx.ext.web.MIMEHeader;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class MIMENegotiationTableTest {
+
+  private static MIMENegotiationTable table(String... types) {
+    Set<MIMEHeader> set = new LinkedHashSet<>();
+    for (String type : types) {
+      set.add(new ParsableMIMEValue(type).forceParse());
+    }
+    return new MIMENegotiationTable(set);
+  }
+
+  @Test
+  public void testConsumes() {
+    MIMENegotiationTable table = table("application/json", "text/*");
+    assertTrue(table.consumes(new ParsableMIMEValue("application/json")));
+    assertTrue(table.consumes(new ParsableMIMEValue("application/json; charset=utf-8")));
+    assertTrue(table.consumes(new ParsableMIMEValue("text/plain")));
+    assertFalse(table.consumes(new ParsableMIMEValue("application/xml")));
+    assertTrue(table.consumes(new ParsableMIMEValue("*/*")));
+    assertTrue(table.consumes(new ParsableMIMEValue("application/json")));
+    assertEquals(5, table.size());
+  }
+
+  @Test
+  public void testConsumesParameters() {
+    MIMENegotiationTable table = table("text/plain;charset=utf-8");
+    assertTrue(table.consumes(new ParsableMIMEValue("text/plain;charset=utf-8")));
+    assertFalse(table.consumes(new ParsableMIMEValue("text/plain")));
+  }
+
+  @Test
+  public void testNegotiate() {
+    MIMENegotiationTable table = table("application/json", "text/html");
+    assertEquals("text/html", table.negotiate("text/plain;q=0.2, text/html;q=0.8, application/json;q=0.5").rawValue());
+    assertEquals("application/json", table.negotiate("application/*").rawValue());
+    assertSame(MIMENegotiationTable.NOT_ACCEPTABLE, table.negotiate("application/xml"));
+    assertNull(table.negotiate(null));
+    assertNull(table.negotiate(""));
+    // memoized
+    assertSame(table.negotiate("application/*"), table.negotiate("application/*"));
+  }
+
+  @Test
+  public void testNegotiateWildcardRoute() {
+    MIMENegotiationTable table = table("text/*");
+    assertEquals("text/html;q=0.9", table.negotiate("image/png, text/html;q=0.9").rawValue());
+  }
+
+  @Test
+  public void testBounded() {
+    MIMENegotiationTable table = new MIMENegotiationTable(Collections.singleton(new ParsableMIMEValue("text/plain").forceParse()));
+    for (int i = 0; i < MIMENegotiationTable.MAX_SIZE * 2; i++) {
+      assertFalse(table.consumes(new ParsableMIMEValue("application/x" + i)));
+      assertTrue(table.size() <= MIMENegotiationTable.MAX_SIZE);
+    }
+  }
+}
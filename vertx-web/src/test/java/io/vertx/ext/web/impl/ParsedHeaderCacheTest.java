@@ -0,0 +1,53 @@
+package io.vertx.ext.web.impl;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParsedHeaderCacheTest {
+
+  @Test
+  public void testSortedAndShared() {
+    ParsedHeaderCache<ParsableMIMEValue> cache = new ParsedHeaderCache<>(ParsableMIMEValue::new);
+    List<ParsableMIMEValue> values = cache.get("text/plain;q=0.5, application/json, */*;q=0.1");
+
+    assertEquals(3, values.size());
+    assertEquals("application/json", values.get(0).value());
+    assertEquals("text/plain", values.get(1).value());
+    assertEquals("*/*", values.get(2).value());
+    assertSame(values, cache.get("text/plain;q=0.5, application/json, */*;q=0.1"));
+    assertEquals(1, cache.size());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnmodifiable() {
+    ParsedHeaderCache<ParsableHeaderValue> cache = new ParsedHeaderCache<>(ParsableHeaderValue::new);
+    cache.get("gzip, deflate").clear();
+  }
+
+  @Test
+  public void testEmpty() {
+    ParsedHeaderCache<ParsableLanguageValue> cache = new ParsedHeaderCache<>(ParsableLanguageValue::new);
+    assertTrue(cache.get(null).isEmpty());
+    assertTrue(cache.get("").isEmpty());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testBounded() {
+    ParsedHeaderCache<ParsableHeaderValue> cache = new ParsedHeaderCache<>(ParsableHeaderValue::new);
+    for (int i = 0; i < ParsedHeaderCache.MAX_SIZE * 2; i++) {
+      assertEquals("v" + i, cache.get("v" + i).get(0).value());
+      assertTrue(cache.size() <= ParsedHeaderCache.MAX_SIZE);
+    }
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() <= ParsedHeaderCache.MAX_VALUE_LENGTH) {
+      sb.append("en-US, ");
+    }
+    cache = new ParsedHeaderCache<>(ParsableHeaderValue::new);
+    assertFalse(cache.get(sb.toString()).isEmpty());
+    assertEquals(0, cache.size());
+  }
+}
@@ -0,0 +1,45 @@
+package io.vertx.ext.web.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PathTemplateTest {
+
+  @Test
+  public void testCompile() {
+    assertEquals(1, PathTemplate.compile("/users/:id").params());
+    assertEquals(2, PathTemplate.compile("/users/:id/orders/:oid").params());
+    assertEquals(1, PathTemplate.compile("/files/:name/*").params());
+    assertEquals(1, PathTemplate.compile("/v:version/").params());
+    // not a token
+    assertEquals(0, PathTemplate.compile("/a/:1").params());
+    // needs backtracking
+    assertNull(PathTemplate.compile("/:from-:to"));
+    assertNull(PathTemplate.compile("/:name.json"));
+    // regex operators
+    assertNull(PathTemplate.compile("/a?/:id"));
+    assertNull(PathTemplate.compile("/[a]/:id"));
+  }
+
+  @Test
+  public void testMatch() {
+    PathTemplate template = PathTemplate.compile("/users/:id/orders/:oid");
+    assertArrayEquals(new int[] { 7, 9, 17, 20 }, template.match("/users/42/orders/abc", 0));
+    assertNull(template.match("/users/42/orders/", 0));
+    assertNull(template.match("/users/42/orders/abc/", 0));
+    assertNull(template.match("/users//orders/abc", 0));
+    assertNull(template.match("/user/42/orders/abc", 0));
+
+    // mounted
+    assertArrayEquals(new int[] { 11, 13, 21, 24 }, template.match("/api/users/42/orders/abc", 4));
+
+    template = PathTemplate.compile("/files/:name*");
+    assertArrayEquals(new int[] { 7, 10, 10 }, template.match("/files/a.b/c/d", 0));
+    assertArrayEquals(new int[] { 7, 10, 10 }, template.match("/files/a.b", 0));
+
+    template = PathTemplate.compile("/v:version/(x)");
+    assertArrayEquals(new int[] { 2, 3 }, template.match("/v1/(x)", 0));
+    assertNull(template.match("/v1/x", 0));
+  }
+}
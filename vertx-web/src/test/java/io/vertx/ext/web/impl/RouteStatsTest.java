@@ -0,0 +1,89 @@
+package io.vertx.ext.web.impl;
+
+import io.vertx.ext.web.RouteMetrics;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RouteStatsTest {
+
+  @Test
+  public void testBuckets() {
+    for (long value : new long[] { 0, 1, 7, 8, 15, 16, 17, 1000, 123456789, RouteStats.MAX_LATENCY }) {
+      int bucket = RouteStats.bucket(value);
+      assertTrue(value <= RouteStats.highest(bucket));
+      if (bucket > 0) {
+        assertTrue(value > RouteStats.highest(bucket - 1));
+      }
+      // 1/8 precision
+      assertTrue(RouteStats.highest(bucket) - value <= value / 8);
+    }
+  }
+
+  @Test
+  public void testSnapshot() {
+    RouteStats stats = new RouteStats();
+    for (int i = 1; i <= 100; i++) {
+      stats.hit();
+      stats.latency(i * 1000);
+    }
+    stats.reject(404);
+    stats.reject(415);
+    stats.reject(500);
+
+    RouteMetrics metrics = stats.snapshot();
+    assertEquals(100, metrics.getHits());
+    assertEquals(1, metrics.getNotFound());
+    assertEquals(1, metrics.getUnsupportedMediaType());
+    assertEquals(0, metrics.getMethodNotAllowed());
+    assertEquals(100, metrics.getLatencyCount());
+    assertEquals(1000, metrics.getLatencyMin());
+    assertEquals(100000, metrics.getLatencyMax());
+    assertEquals(50500, metrics.getLatencyMean());
+    assertEquals(50000, metrics.getLatency50(), 50000 / 8);
+    assertEquals(90000, metrics.getLatency90(), 90000 / 8);
+    assertEquals(99000, metrics.getLatency99(), 99000 / 8);
+  }
+
+  @Test
+  public void testSnapshotMergesThreads() throws Exception {
+    RouteStats stats = new RouteStats();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final long offset = t * 100_000;
+      threads[t] = new Thread(() -> {
+        for (int i = 1; i <= 1000; i++) {
+          stats.hit();
+          stats.latency(offset + i);
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    RouteMetrics metrics = stats.snapshot();
+    assertEquals(4000, metrics.getHits());
+    assertEquals(4000, metrics.getLatencyCount());
+    assertEquals(1, metrics.getLatencyMin());
+    assertEquals(301000, metrics.getLatencyMax());
+    assertEquals(150500, metrics.getLatencyMean());
+  }
+
+  @Test
+  public void testLatencyBounds() {
+    RouteStats stats = new RouteStats();
+    RouteMetrics metrics = stats.snapshot();
+    assertEquals(0, metrics.getLatencyCount());
+    assertEquals(0, metrics.getLatencyMax());
+
+    stats.latency(-1);
+    stats.latency(Long.MAX_VALUE);
+    metrics = stats.snapshot();
+    assertEquals(2, metrics.getLatencyCount());
+    assertEquals(0, metrics.getLatencyMin());
+    assertEquals(RouteStats.MAX_LATENCY, metrics.getLatencyMax());
+    assertEquals(RouteStats.MAX_LATENCY, metrics.getLatency99());
+  }
+}